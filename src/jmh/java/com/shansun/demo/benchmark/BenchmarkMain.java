@@ -0,0 +1,24 @@
+package com.shansun.demo.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * benchmarks.jarڣͬJMHУĬϹGC profilerops/sٱÿβֽ(gc.alloc.rate.norm)
+ * <p>
+ * java -jar target/benchmarks.jar ScanBenchmark -p fastPath=true
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class BenchmarkMain {
+
+	public static void main(String[] args) throws Exception {
+		Options options = new OptionsBuilder().parent(new CommandLineOptions(args)).addProfiler(GCProfiler.class).build();
+		new Runner(options).run();
+	}
+}
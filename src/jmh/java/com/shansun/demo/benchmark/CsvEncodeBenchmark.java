@@ -0,0 +1,119 @@
+package com.shansun.demo.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.shansun.demo.log.CsvEntrySink;
+import com.shansun.demo.log.EntrySchema;
+import com.shansun.demo.log.EntryTable;
+import com.shansun.demo.log.LogLineScanner;
+import com.shansun.demo.log.ReduceFailure;
+import com.shansun.demo.log.SampleLogs;
+import com.shansun.demo.log.StringDictionary;
+
+/**
+ * LogFlusherдCSVʱб(CsvEntrySink.encode)һβΪһ
+ * <p>
+ * setupɺϳ־ȫԤۺͼʧܸһű
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+@OperationsPerInvocation(CsvEncodeBenchmark.ROWS)
+public class CsvEncodeBenchmark {
+
+	static final int	ROWS	= 4096;
+
+	EntryTable			withholds;
+	EntryTable			failures;
+	StringBuilder		line	= new StringBuilder(256);
+
+	@Setup
+	public void setup() {
+		StringDictionary dictionary = new StringDictionary();
+		withholds = new EntryTable(dictionary, ROWS);
+		failures = new EntryTable(dictionary, ROWS);
+
+		LogLineScanner scanner = new LogLineScanner();
+		Random random = new Random(42);
+		while (!withholds.isFull()) {
+			String sample = SampleLogs.randomize(SampleLogs.LINES[random.nextInt(SampleLogs.LINES.length)], random);
+			if (scanner.batchWithhold(sample)) {
+				String succ = scanner.group(6);
+				int row = withholds.add(EntryTable.FULL_WITHHOLD);
+				withholds.setTime(row, scanner, 2);
+				withholds.setLong(EntryTable.BIZ_ID, row, scanner, 5);
+				withholds.setInt(EntryTable.USING, row, scanner, 4);
+				withholds.setText(EntryTable.SUCC, row, String.valueOf(succ.equals("T")));
+				withholds.setText(EntryTable.CALLER, row, scanner.caller());
+			} else if (scanner.singleWithhold(sample)) {
+				int row = withholds.add(EntryTable.FULL_WITHHOLD);
+				withholds.setTime(row, scanner, 2);
+				withholds.setInt(EntryTable.USING, row, scanner, 4);
+				withholds.setLong(EntryTable.SUB_ID, row, scanner, 5);
+				withholds.setInt(EntryTable.QUANTITY, row, scanner, 6);
+				withholds.setText(EntryTable.AFTER_PAYMENT, row, scanner.group(7));
+				withholds.setLong(EntryTable.ITEM_ID, row, scanner, 8);
+				withholds.setText(EntryTable.SUCC, row, String.valueOf(scanner.group(9).equals("T")));
+				withholds.setText(EntryTable.CALLER, row, scanner.caller());
+			}
+		}
+
+		while (!failures.isFull()) {
+			ReduceFailure entry = new ReduceFailure();
+			entry.time = String.format("%02d:%02d:%02d", random.nextInt(24), random.nextInt(60), random.nextInt(60));
+			entry.bizId = String.valueOf(100000000000000L + (random.nextLong() >>> 1) % 900000000000000L);
+			entry.subId = entry.bizId;
+			entry.itemId = String.valueOf(random.nextInt(Integer.MAX_VALUE));
+			entry.skuId = String.valueOf(random.nextInt(Integer.MAX_VALUE));
+			entry.reason = random.nextBoolean() ? "NoMoreDataSourceException" : "IC_ERROR";
+
+			int row = failures.add(EntryTable.REDUCE_INFO);
+			failures.setTime(row, entry.time);
+			failures.setLong(EntryTable.BIZ_ID, row, entry.bizId);
+			failures.setLong(EntryTable.SUB_ID, row, entry.subId);
+			failures.setLong(EntryTable.ITEM_ID, row, entry.itemId);
+			failures.setLong(EntryTable.SKU_ID, row, entry.skuId);
+			failures.setReason(row, entry.reason);
+		}
+	}
+
+	@Benchmark
+	public void fullWithhold(Blackhole hole) {
+		encode(withholds, EntrySchema.FULL_WITHHOLD, hole);
+	}
+
+	@Benchmark
+	public void reduceFailure(Blackhole hole) {
+		encode(failures, EntrySchema.REDUCE_INFO, hole);
+	}
+
+	private void encode(EntryTable table, EntrySchema schema, Blackhole hole) {
+		for (int row = 0; row < ROWS; row++) {
+			line.setLength(0);
+			CsvEntrySink.encode(table, row, schema, line);
+			line.append('\n');
+			hole.consume(line);
+		}
+	}
+}
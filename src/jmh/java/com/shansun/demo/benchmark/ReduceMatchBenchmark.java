@@ -0,0 +1,73 @@
+package com.shansun.demo.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.shansun.demo.log.ReasonClassifier;
+import com.shansun.demo.log.ReduceFailure;
+import com.shansun.demo.log.SampleLogs;
+
+/**
+ * ʧܼ¼ԭ(ReduceAnalyzer.match)мӺУһβΪһ¼
+ * <p>
+ * кϳɵУеĴ֪ԭ(쳣ջ)еҪƴԭġ
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+@OperationsPerInvocation(ReduceMatchBenchmark.RECORDS)
+public class ReduceMatchBenchmark {
+
+	static final int	RECORDS	= 2048;
+	static final int	FOLLOW	= 2;
+
+	ReasonClassifier	reasons;
+	String[][]			records	= new String[RECORDS][];
+
+	@Setup
+	public void setup() throws IOException {
+		reasons = ReasonClassifier.load((String) null);
+
+		Random random = new Random(42);
+		List<String> follow = SampleLogs.generate(RECORDS * FOLLOW, 7);
+		for (int i = 0; i < RECORDS; i++) {
+			String[] record = records[i] = new String[1 + FOLLOW];
+			record[0] = SampleLogs.randomize(SampleLogs.LINES[SampleLogs.REDUCE_FAILURE], random);
+			for (int k = 0; k < FOLLOW; k++) {
+				record[1 + k] = follow.get(i * FOLLOW + k);
+			}
+		}
+	}
+
+	@Benchmark
+	public void match(Blackhole hole) {
+		for (String[] record : records) {
+			ReduceFailure entry = new ReduceFailure();
+			for (int k = 0; k < record.length && !entry.match(reasons, record[k]); k++) {
+			}
+			hole.consume(entry.reason);
+		}
+	}
+}
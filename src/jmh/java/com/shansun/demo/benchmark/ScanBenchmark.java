@@ -0,0 +1,101 @@
+package com.shansun.demo.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.shansun.demo.log.ByteLineScanner;
+import com.shansun.demo.log.ByteLines;
+import com.shansun.demo.log.LogLineScanner;
+import com.shansun.demo.log.SampleLogs;
+
+/**
+ * ĸ־(BATCH_WITHHOLD/SINGLE_WITHHOLD/REDUCE/WITHHOLD)ƥ䲢ȡʱֶΣһβΪһ
+ * <p>
+ * fastPath=falseԭĴtrueΪɨ(ò׼ʱ)ְStringͰgb2312ֶֽ
+ * ֽڶɨֽڣfastPathֻӰò׼ʱ˵һ롣
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+@OperationsPerInvocation(ScanBenchmark.LINES)
+public class ScanBenchmark {
+
+	static final int	LINES	= 4096;
+
+	@Param({ "true", "false" })
+	boolean				fastPath;
+
+	List<String>		lines;
+	ByteBuffer			buffer;
+	int[]				starts	= new int[LINES];
+	int[]				ends	= new int[LINES];
+
+	LogLineScanner		scanner;
+	ByteLineScanner		bytes;
+
+	@Setup
+	public void setup() {
+		lines = SampleLogs.generate(LINES, 42);
+		buffer = SampleLogs.encode(lines);
+		ByteLines.forEachLine(buffer.duplicate(), new ByteLines.Handler() {
+
+			int	n	= 0;
+
+			@Override
+			public void format(ByteBuffer buffer, int from, int to) {
+				starts[n] = from;
+				ends[n] = to;
+				n++;
+			}
+		});
+
+		scanner = new LogLineScanner(fastPath);
+		bytes = new ByteLineScanner(fastPath);
+	}
+
+	@Benchmark
+	public long strings() {
+		long sum = 0;
+		for (int i = 0; i < LINES; i++) {
+			String line = lines.get(i);
+			if (scanner.batchWithhold(line) || scanner.singleWithhold(line) || scanner.reduce(line) || scanner.withhold(line)) {
+				sum += scanner.time(2);
+			}
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long bytes() {
+		long sum = 0;
+		for (int i = 0; i < LINES; i++) {
+			int from = starts[i], to = ends[i];
+			if (bytes.batchWithhold(buffer, from, to) || bytes.singleWithhold(buffer, from, to) || bytes.reduce(buffer, from, to)
+					|| bytes.withhold(buffer, from, to)) {
+				sum += bytes.time(2);
+			}
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,210 @@
+package com.shansun.demo.benchmark;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.AtomicDouble;
+
+import EDU.oswego.cs.dl.util.concurrent.FJTask;
+import EDU.oswego.cs.dl.util.concurrent.FJTaskRunnerGroup;
+
+/**
+ * ͬһԼ(1ۼӵsize)߲ͬĲдѭ̶̳߳+FutureCountDownLatch+AtomicDouble
+ * (MultiThreadSum)FJTask(forkjoin.Sum)ForkJoinPoolͲ
+ * <p>
+ * ̳߳صдгthreads*{@link #CHUNKS_PER_THREAD}ΣͬһѭÿΣForkJoinPoolFJTaskͬĶγֵ԰
+ * дҵﳣLongStream.rangeClosed(1, size).parallel().sum()ύͬСForkJoinPoolܣ
+ * ùءserialthreads޹أthreadsͬļӦһ
+ * <p>
+ * java -jar target/benchmarks.jar SumStrategyBenchmark -p threads=1,4 -p size=100000000
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SumStrategyBenchmark {
+
+	static final int		CHUNKS_PER_THREAD	= 4;
+
+	@Param({ "1", "2", "4", "8" })
+	int						threads;
+
+	@Param({ "1000000", "100000000" })
+	int						size;
+
+	int						chunk;
+	ExecutorService			executor;
+	ForkJoinPool			forkJoinPool;
+	FJTaskRunnerGroup		group;
+
+	@Setup
+	public void setup() {
+		chunk = Math.max(1, (int) Math.ceil((double) size / (threads * CHUNKS_PER_THREAD)));
+		executor = Executors.newFixedThreadPool(threads);
+		forkJoinPool = new ForkJoinPool(threads);
+		group = new FJTaskRunnerGroup(threads);
+	}
+
+	@TearDown
+	public void tearDown() {
+		executor.shutdown();
+		forkJoinPool.shutdown();
+		group.interruptAll();
+	}
+
+	/**
+	 * [from, to)֮ͣд
+	 */
+	static long sum(int from, int to) {
+		long sum = 0;
+		for (int i = from; i < to; i++) {
+			sum += i;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long serial() {
+		return sum(1, size + 1);
+	}
+
+	@Benchmark
+	public long future() throws Exception {
+		List<Future<Long>> futures = Lists.newArrayList();
+		for (int from = 1; from <= size; from += chunk) {
+			final int start = from;
+			final int end = (int) Math.min((long) from + chunk, size + 1L);
+			futures.add(executor.submit(new Callable<Long>() {
+
+				@Override
+				public Long call() {
+					return sum(start, end);
+				}
+			}));
+		}
+		long sum = 0;
+		for (Future<Long> future : futures) {
+			sum += future.get();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public double countdown() throws InterruptedException {
+		final CountDownLatch finish = new CountDownLatch((size + chunk - 1) / chunk);
+		final AtomicDouble total = new AtomicDouble(0);
+		for (int from = 1; from <= size; from += chunk) {
+			final int start = from;
+			final int end = (int) Math.min((long) from + chunk, size + 1L);
+			executor.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					total.addAndGet(sum(start, end));
+					finish.countDown();
+				}
+			});
+		}
+		finish.await();
+		return total.doubleValue();
+	}
+
+	@Benchmark
+	public long fjTask() throws InterruptedException {
+		FJSumTask task = new FJSumTask(1, size + 1, chunk);
+		group.invoke(task);
+		return task.sum;
+	}
+
+	@Benchmark
+	public long forkJoin() {
+		return forkJoinPool.invoke(new SumTask(1, size + 1, chunk));
+	}
+
+	@Benchmark
+	public long parallelStream() throws Exception {
+		return forkJoinPool.submit(() -> LongStream.rangeClosed(1, size).parallel().sum()).get();
+	}
+
+	static class SumTask extends RecursiveTask<Long> {
+
+		private static final long	serialVersionUID	= 1L;
+
+		final int					from;
+		final int					to;
+		final int					threshold;
+
+		SumTask(int from, int to, int threshold) {
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+		}
+
+		@Override
+		protected Long compute() {
+			if (to - from <= threshold) {
+				return sum(from, to);
+			}
+			int mid = (from + to) >>> 1;
+			SumTask left = new SumTask(from, mid, threshold);
+			left.fork();
+			long right = new SumTask(mid, to, threshold).compute();
+			return left.join() + right;
+		}
+	}
+
+	static class FJSumTask extends FJTask {
+
+		final int	from;
+		final int	to;
+		final int	threshold;
+		long		sum;
+
+		FJSumTask(int from, int to, int threshold) {
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+		}
+
+		@Override
+		public void run() {
+			if (to - from <= threshold) {
+				sum = sum(from, to);
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			FJSumTask left = new FJSumTask(from, mid, threshold);
+			FJSumTask right = new FJSumTask(mid, to, threshold);
+			coInvoke(left, right);
+			sum = left.sum + right.sum;
+		}
+	}
+}
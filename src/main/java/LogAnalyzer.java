@@ -4,16 +4,58 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.FilenameFilter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import com.google.common.collect.Lists;
+import com.shansun.demo.log.AbstractLineScanner;
+import com.shansun.demo.log.ByteLineScanner;
+import com.shansun.demo.log.BinaryEntrySink;
+import com.shansun.demo.log.ByteLines;
+import com.shansun.demo.log.CsvEntrySink;
+import com.shansun.demo.log.EntrySchema;
+import com.shansun.demo.log.EntrySink;
+import com.shansun.demo.log.EntryTable;
+import com.shansun.demo.log.LatencyHistogram;
+import com.shansun.demo.log.LogIndex;
+import com.shansun.demo.log.LogIndexBuilder;
+import com.shansun.demo.log.LogAggregator;
+import com.shansun.demo.log.LogLineScanner;
+import com.shansun.demo.log.PipelineMetrics;
+import com.shansun.demo.log.ReasonClassifier;
+import com.shansun.demo.log.RecordAssembler;
+import com.shansun.demo.log.ReduceFailure;
+import com.shansun.demo.log.SampleLogs;
+import com.shansun.demo.log.StringDictionary;
+import com.shansun.demo.log.WithholdJoiner;
+import com.shansun.demo.tool.ByteBufferInputStream;
+import com.shansun.demo.tool.FileTailer;
+import com.shansun.demo.tool.LineChunks;
+import com.shansun.demo.tool.LineRangeScheduler;
+import com.shansun.demo.tool.ParallelGzipInputStream;
+
 /**
  * @author lanbo <br>
  * @version 1.0 <br>
@@ -25,368 +67,932 @@ public class LogAnalyzer {
 
 	// private static final Pattern pattern = Pattern.compile(LOG_PATTNER);
 
-	private static final Queue<LogEntry>	entries		= new ConcurrentLinkedQueue<LogEntry>();
+	/** ÿ */
+	private static final int							BATCH_SIZE		= 4096;
+
+	/** ;ޣʱ߳ȴдļ */
+	private static final int							BATCH_CAPACITY	= 64;
+
+	private static final BlockingQueue<EntryTable>		batches			= new ArrayBlockingQueue<EntryTable>(BATCH_CAPACITY);
+
+	/** дλո */
+	private static final Queue<EntryTable>				freeTables		= new ConcurrentLinkedQueue<EntryTable>();
+
+	/** 롢T/Fȡֵ޵ֶιһֵ */
+	private static final StringDictionary				dictionary		= new StringDictionary();
+
+	/** ǣнУÿд߳ȡŻȥ˳ */
+	private static final EntryTable						END				= new EntryTable(dictionary, 0);
+
+	/** ̻߳ĲֽLogFlusherϲ */
+	private static final Queue<LogAggregator>			partials		= new ConcurrentLinkedQueue<LogAggregator>();
+
+	/** кдģʽݴж̶ܷȡλ */
+	private static final AtomicLong						queuedTables	= new AtomicLong();
+	private static final AtomicLong						writtenTables	= new AtomicLong();
 
 	private static final Queue<String>		files		= new ConcurrentLinkedQueue<String>();
 
-	private static AtomicInteger			threadCnt	= new AtomicInteger(0);
+	/** δĽʼ1realMainУͷţstartProducer */
+	private static final AtomicInteger		producers	= new AtomicInteger(1);
 
 	private static String					seperator	= System.getProperty("file.separator");
 
-	static abstract class LogEntry {
-		String	bizId = "";
-		String	time;
-		String	using;
-		String	succ;
+	/** ׶εļͺʱʱдcsv/metrics.json */
+	private static final PipelineMetrics	metrics		= new PipelineMetrics();
+
+	/** -Danalyzer.progress= ȱļ0 */
+	private static final long				PROGRESS_INTERVAL	= Long.getLong("analyzer.progress", 5);
+
+	/** -Danalyzer.gzip.threads=N BGZFʽ.gzнѹ߳ͨgzipһ̨߳̽ѹ */
+	private static final int				GZIP_THREADS	= Integer.getInteger("analyzer.gzip.threads", Runtime.getRuntime().availableProcessors());
+
+	/** ѹȽٿ(ÿ64KB) */
+	private static final int				GZIP_BUFFERS	= 32;
+
+	/** ģʽյ˳źźô()õǰһд */
+	private static final long				SHUTDOWN_TIMEOUT	= 60;
+
+	/** -Danalyzer.regex=true ʱرտɨ裬ȫ */
+	private static final boolean			FAST_SCAN	= !Boolean.getBoolean("analyzer.regex");
+
+	/** ʧԭ-Danalyzer.reasons=ļ· 滻Ĭϵreduce-reasons.conf */
+	private static final ReasonClassifier	REASONS		= loadReasons();
+
+	/** -Danalyzer.csv=false ʱֻܣдϸcsv */
+	private static final boolean			WRITE_ROWS	= !"false".equals(System.getProperty("analyzer.csv"));
+
+	/** -Danalyzer.sink=csv|binary|csv,binary ϸʽbinaryдmmapȡʽ.binļ */
+	private static final String				SINKS		= System.getProperty("analyzer.sink", "csv");
+
+	/** -Danalyzer.shards=N ϸN̲߳дcsv/shard-i/£ʱƴһļģʽ̶һ */
+	private static final int				SHARDS		= Integer.getInteger("analyzer.shards", 1);
+
+	/** -Danalyzer.shards.merge=false ʱƬļƴ */
+	private static final boolean			MERGE_SHARDS	= !"false".equals(System.getProperty("analyzer.shards.merge"));
+
+	/**
+	 * -Danalyzer.join.window= 0ʱ͵Ԥ۰Źдwithhold-join.csv
+	 * ڵȹļ¼ֻڴjoin-spillģʽļ㲻ǣ̱ᶪⲿֹ
+	 */
+	private static final int				JOIN_WINDOW		= Integer.getInteger("analyzer.join.window", 0);
+
+	/**
+	 * -Danalyzer.join.lateness= ¼ã˾Ĭϸģʽһڣ
+	 * һԷʱļֶβж¼ңĬϵȵ
+	 */
+	private static final Integer			JOIN_LATENESS	= Integer.getInteger("analyzer.join.lateness");
+
+	/** -Danalyzer.join.memory=MB ʱڴȴļ¼ޣ */
+	private static final long				JOIN_MEMORY		= Long.getLong("analyzer.join.memory", 64) * 1024 * 1024;
+
+	static ReasonClassifier loadReasons() {
+		try {
+			return ReasonClassifier.load(System.getProperty("analyzer.reasons"));
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot load reduce failure reasons", e);
+		}
 	}
 
-	static class LogReduceEntry extends LogEntry {
-		String	subId;
-		String	user;
+	/**
+	 * Ǽǲһ(쳣)ʱע
+	 * ȵǼ̣߳д߳̾ͲʼǰΪȫ
+	 */
+	static Thread startProducer(final Runnable task, String name) {
+		producers.incrementAndGet();
+		Thread thread = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					task.run();
+				} finally {
+					producerDone();
+				}
+			}
+		}, name);
+		thread.start();
+		return thread;
 	}
 
-	static class LogWithholdEntry extends LogEntry {
-		String	enough;
+	/**
+	 * עһһעʱŽǡ
+	 * עǰѾʣηУԽһ֮
+	 */
+	static void producerDone() {
+		if (producers.decrementAndGet() == 0) {
+			try {
+				batches.put(END);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
 	}
-	
-	static class LogReduceInfoEntry extends LogEntry {
-		String subId;
-		String itemId;
-		String skuId;
-		String reason = "";
-		int    lineCnt = 0;
+
+	/**
+	 * ȵǰtargetζд
+	 */
+	static void awaitWritten(long target) throws InterruptedException {
+		synchronized (writtenTables) {
+			while (writtenTables.get() < target) {
+				writtenTables.wait();
+			}
+		}
 	}
-	
-	static class LogFullWithholdEntry extends LogWithholdEntry {
-		String code = "";
-		String afterPayment = "";
-		String subId = "";
-		String itemId = "";
-		String quantity = "";
+
+	/**
+	 * ڴӡȣػ̣߳Ӱ˳
+	 */
+	static void startProgressReporter(long seconds) {
+		ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "ProgressReporter");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		reporter.scheduleAtFixedRate(new Runnable() {
+
+			@Override
+			public void run() {
+				System.out.println(metrics.progress(batches.size(), BATCH_CAPACITY));
+			}
+		}, seconds, seconds, TimeUnit.SECONDS);
+	}
+
+	static boolean isGzip(String filename) {
+		return filename.endsWith(".gz");
+	}
+
+	/**
+	 * gb2312һ־ļ.gz߶ں̨ѹ
+	 */
+	static BufferedReader openLog(String filepath) throws IOException {
+		InputStream in;
+		if (isGzip(filepath)) {
+			in = new ParallelGzipInputStream(new File(filepath), GZIP_THREADS, GZIP_BUFFERS);
+		} else {
+			in = new FileInputStream(filepath);
+		}
+		return new BufferedReader(new InputStreamReader(metrics.count(in), "gb2312"));
+	}
+
+	static EntryTable newTable() {
+		EntryTable table = freeTables.poll();
+		return table != null ? table : new EntryTable(dictionary, BATCH_SIZE);
+	}
+
+	/**
+	 * ̸߳һEntryTable׷УBATCH_SIZEȻٷн
+	 */
+	static class EntryBatcher {
+		/** ɨܹô౨һ */
+		static final int	SCAN_REPORT	= 64 * 1024;
+
+		EntryTable		table		= newTable();
+
+		LogAggregator	aggregator	= new LogAggregator(dictionary);
+
+		long			created		= System.nanoTime();
+		long			waited		= 0;
+		int				scanned		= 0;
+		long[]			matched		= new long[PipelineMetrics.PATTERNS];
+
+		/**
+		 * ÿɨһеһ
+		 */
+		public void scanned() {
+			if (++scanned == SCAN_REPORT) {
+				metrics.scanned(scanned);
+				metrics.matched(matched);
+				scanned = 0;
+			}
+		}
+
+		/**
+		 * һƥĳʱãpatternPipelineMetrics.BATCH_WITHHOLD
+		 */
+		public void matched(int pattern) {
+			matched[pattern]++;
+		}
+
+		/**
+		 * ׷һвкţֱ{@link #table}
+		 */
+		public int add(byte type) {
+			if (table.isFull()) {
+				flush();
+			}
+			return table.add(type);
+		}
+
+		public void add(ReduceFailure entry) {
+			int row = add(EntryTable.REDUCE_INFO);
+			table.setTime(row, entry.time);
+			table.setLong(EntryTable.BIZ_ID, row, entry.bizId);
+			table.setLong(EntryTable.SUB_ID, row, entry.subId);
+			table.setLong(EntryTable.ITEM_ID, row, entry.itemId);
+			table.setLong(EntryTable.SKU_ID, row, entry.skuId);
+			table.setReason(row, entry.reason);
+		}
+
+		public void flush() {
+			if (table.isEmpty()) {
+				return;
+			}
+
+			aggregator.add(table);
+			metrics.enqueued(table);
+			long begin = System.nanoTime();
+			try {
+				batches.put(table);
+				queuedTables.incrementAndGet();
+				waited += System.nanoTime() - begin;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			table = newTable();
+		}
+
+		/**
+		 * ʣкͱ̵߳Ļ
+		 */
+		public void close() {
+			flush();
+			partials.offer(aggregator);
+
+			metrics.scanned(scanned);
+			metrics.matched(matched);
+			scanned = 0;
+			metrics.parsed(System.nanoTime() - created - waited, waited);
+		}
 	}
 
 	static class LogFlusher implements Runnable {
-		BufferedWriter	reduceWriter	= null;
-		BufferedWriter	withholdWriter	= null;
-		BufferedWriter	reduceInfoWriter= null;
-		BufferedWriter	fullWithholdWriter= null;
+		String			base;
+
+		LogAggregator	summary			= new LogAggregator(dictionary);
+
+		/** ϸд̣߳һLogFlusherԼ߳ܣSHARDS */
+		List<ShardWriter>	shards		= Lists.newArrayList();
+
+		/** иʱٸôдһλļ */
+		static final long	SUMMARY_INTERVAL	= 10 * 1000;
+
+		boolean				dirty				= false;
+		long				lastSummary			= System.currentTimeMillis();
+
+		/** Ԥ۰Źд̹߳ãûΪnull */
+		WithholdJoiner			joiner;
+
+		/** ϸͻܶд */
+		final CountDownLatch	done			= new CountDownLatch(1);
+
+		public LogFlusher(String base) {
+			this(base, false);
+		}
+
+		/**
+		 * @param append ģʽ½ԭϸļд
+		 */
+		public LogFlusher(String base, boolean append) {
+			this.base = base;
+			// ģʽһֱ׷ӣֻһд߳
+			int n = append ? 1 : Math.max(1, SHARDS);
+			if (n == 1) {
+				shards.add(new ShardWriter(base, append));
+			} else {
+				for (int i = 0; i < n; i++) {
+					String dir = base + "shard-" + i + seperator;
+					new File(dir).mkdirs();
+					shards.add(new ShardWriter(dir, false));
+				}
+			}
+
+			if (JOIN_WINDOW > 0) {
+				try {
+					int lateness = JOIN_LATENESS != null ? JOIN_LATENESS : append ? JOIN_WINDOW : -1;
+					joiner = new WithholdJoiner(base, JOIN_WINDOW, lateness, JOIN_MEMORY, append);
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
 
-		public LogFlusher(String base) throws UnsupportedEncodingException, FileNotFoundException {
-			// reduceWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(base + "reduce.csv"), "gb2312"));
-			// withholdWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(base + "withhold.csv"), "gb2312"));
-			// reduceInfoWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(base + "reduce-failure-2.csv"), "gb2312"));
-			fullWithholdWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(base + "full-withhold.csv"), "gb2312"));
+		static List<EntrySink> newSinks(String base, boolean append) {
+			List<EntrySink> sinks = Lists.newArrayList();
+			for (String sink : SINKS.split(",")) {
+				sink = sink.trim();
+				if ("csv".equals(sink)) {
+					sinks.add(new CsvEntrySink(base, append));
+				} else if ("binary".equals(sink)) {
+					sinks.add(new BinaryEntrySink(base, append));
+				} else if (sink.length() > 0) {
+					throw new IllegalArgumentException("Unknown analyzer.sink: " + sink);
+				}
+			}
+			return sinks;
 		}
 
 		public void start() {
-			new Thread(this).start();
+			new Thread(this, "LogFlusher").start();
+		}
+
+		/**
+		 * LogFlusherϸͻܶд꣬ʱfalse
+		 */
+		public boolean awaitDone(long timeout, TimeUnit unit) throws InterruptedException {
+			return done.await(timeout, unit);
 		}
 
 		@Override
 		public void run() {
-			LogEntry entry = null;
-			
 			try {
-				Thread.sleep(3000);
-			} catch (InterruptedException e1) {
-				e1.printStackTrace();
+				write();
+			} finally {
+				done.countDown();
+			}
+		}
+
+		void write() {
+			List<Thread> threads = Lists.newArrayList();
+			for (int i = 1; i < shards.size(); i++) {
+				Thread thread = new Thread(shards.get(i), "LogFlusher-shard-" + i);
+				thread.start();
+				threads.add(thread);
+			}
+			shards.get(0).run();
+			for (Thread thread : threads) {
+				try {
+					thread.join();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+
+			if (joiner != null) {
+				try {
+					joiner.close();
+					metrics.written(joiner.bytesWritten(), 0);
+					System.out.println(joiner.stats());
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+
+			merge();
+			try {
+				if (shards.size() > 1 && MERGE_SHARDS) {
+					mergeShards();
+				}
+				writeSummary();
+			} catch (IOException e) {
+				e.printStackTrace();
 			}
 			
-			while (true) {
-				entry = entries.poll();
-				
-				if (entry == null) {
-					if (threadCnt.get() == 0) {
-						break;
-					}
+			System.out.println(metrics.progress(batches.size(), BATCH_CAPACITY));
+			System.out.println("Analyzer Done!");
+		}
 
+		/**
+		 * ƬϸtransferToƴcsv/µĵļյķƬĿ¼ɾ
+		 */
+		void mergeShards() throws IOException {
+			List<String> dirs = Lists.newArrayList();
+			for (ShardWriter shard : shards) {
+				dirs.add(shard.base);
+			}
+			CsvEntrySink.merge(base, dirs);
+			BinaryEntrySink.merge(base, dirs);
+			for (String dir : dirs) {
+				new File(dir).delete();
+			}
+		}
+
+		/**
+		 * һϸд̣߳batchesȡдԼһsink
+		 * һƬLogFlusher߳ϣ˳ϲ̵߳Ļ
+		 */
+		class ShardWriter implements Runnable {
+			final String			base;
+			final List<EntrySink>	sinks;
+
+			ShardWriter(String base, boolean append) {
+				this.base = base;
+				this.sinks = newSinks(base, append);
+			}
+
+			@Override
+			public void run() {
+				boolean primary = this == shards.get(0);
+				EntryTable batch = null;
+
+				while (true) {
+					long begin = System.nanoTime();
 					try {
-						Thread.sleep(1000);
+						// һƬһʱϲܣģʽûʱҲܼʱ
+						batch = primary ? batches.poll(SUMMARY_INTERVAL, TimeUnit.MILLISECONDS) : batches.take();
 					} catch (InterruptedException e) {
+						break;
+					} finally {
+						metrics.dequeueWait(System.nanoTime() - begin);
 					}
-				} else {
-					try {
-						if (entry instanceof LogReduceEntry) {
-							LogReduceEntry re = (LogReduceEntry) entry;
-							reduceWriter.append(re.bizId + "," + re.subId + "," + re.time + "," + re.using + "," + re.succ + "\n");
-							reduceWriter.flush();
-						} else if(entry instanceof LogFullWithholdEntry) {
-							LogFullWithholdEntry fw = (LogFullWithholdEntry) entry;
-							fullWithholdWriter.append(fw.time + "," + fw.bizId + "," + fw.subId + "," + fw.itemId + "," + fw.afterPayment + "," + fw.succ + "," + fw.code + "\n");
-							fullWithholdWriter.flush();
-						} else if(entry instanceof LogWithholdEntry) {
-							LogWithholdEntry we = (LogWithholdEntry) entry;
-							withholdWriter.append(we.bizId + "," + we.time + "," + we.using + "," + we.succ + "," + we.enough + "\n");
-							withholdWriter.flush();
-						} else if(entry instanceof LogReduceInfoEntry) {
-							LogReduceInfoEntry ri = (LogReduceInfoEntry) entry;
-							reduceInfoWriter.append(ri.time + "," + ri.bizId + "," + ri.subId + "," + ri.itemId + "," + ri.skuId + "," + ri.reason + "\n");
-							reduceInfoWriter.flush();
+
+					if (primary) {
+						merge();
+					}
+
+					if (batch == END) {
+						// һд߳
+						batches.offer(END);
+						break;
+					}
+
+					if (batch != null) {
+						metrics.dequeued(batch.size());
+						metrics.queueDepth(batches.size() + 1);
+					}
+
+					if (batch != null && WRITE_ROWS) {
+						begin = System.nanoTime();
+						long bytes = 0;
+						try {
+							for (EntrySink sink : sinks) {
+								bytes -= sink.bytesWritten();
+								sink.write(batch);
+								// ÿֻˢһ
+								sink.flush();
+								bytes += sink.bytesWritten();
+							}
+							if (joiner != null) {
+								joiner.write(batch);
+								// ģʽµڵĹдȻ
+								joiner.flush();
+							}
+						} catch (IOException e) {
+							e.printStackTrace();
 						}
-					} catch (IOException e) {
+						metrics.written(bytes, System.nanoTime() - begin);
+					}
+
+					if (batch != null) {
+						batch.clear();
+						freeTables.offer(batch);
+						synchronized (writtenTables) {
+							writtenTables.incrementAndGet();
+							writtenTables.notifyAll();
+						}
+					}
+
+					// ʱ(ģʽ)ʱˢ»
+					if (primary && dirty && System.currentTimeMillis() - lastSummary >= SUMMARY_INTERVAL) {
+						try {
+							writeSummary();
+						} catch (IOException e) {
+							e.printStackTrace();
+						}
+					}
+				}
+
+				try {
+					for (EntrySink sink : sinks) {
+						sink.close();
 					}
+				} catch (IOException e) {
+					e.printStackTrace();
 				}
 			}
-			
-			System.out.println("Analyzer Done!");
+		}
+
+		void merge() {
+			LogAggregator partial;
+			while ((partial = partials.poll()) != null) {
+				summary.merge(partial);
+				dirty = true;
+			}
+		}
+
+		/**
+		 * ܽfailure-codes.csv(,,)latency.csv(÷,,min,p50,p90,p99,p999,max,mean)
+		 * throughput.csv(,,ʧ)reduce-failure-reasons.csv(ԭ,)
+		 */
+		void writeSummary() throws IOException {
+			dirty = false;
+			lastSummary = System.currentTimeMillis();
+
+			BufferedWriter json = newWriter("metrics.json");
+			json.append(metrics.toJson()).append('\n');
+			json.close();
+
+			BufferedWriter writer = newWriter("failure-codes.csv");
+			for (byte type = EntryTable.REDUCE; type <= EntryTable.FULL_WITHHOLD; type++) {
+				for (Map.Entry<String, Long> e : summary.failures(type).entrySet()) {
+					writer.append(EntrySchema.of(type).name + "," + e.getKey() + "," + e.getValue() + "\n");
+				}
+			}
+			writer.close();
+
+			writer = newWriter("latency.csv");
+			for (Map.Entry<String, LatencyHistogram> e : summary.latencies().entrySet()) {
+				LatencyHistogram h = e.getValue();
+				writer.append(e.getKey() + "," + h.count() + "," + h.min() + "," + h.percentile(50) + "," + h.percentile(90) + "," + h.percentile(99) + ","
+						+ h.percentile(99.9) + "," + h.max() + "," + String.format("%.1f", h.mean()) + "\n");
+			}
+			writer.close();
+
+			writer = newWriter("throughput.csv");
+			long[] rows = summary.rowsPerMinute();
+			long[] failures = summary.failuresPerMinute();
+			for (int m = 0; m < rows.length; m++) {
+				if (rows[m] > 0) {
+					writer.append(String.format("%02d:%02d", m / 60, m % 60) + "," + rows[m] + "," + failures[m] + "\n");
+				}
+			}
+			writer.close();
+
+			if (!summary.reasons().isEmpty()) {
+				writer = newWriter("reduce-failure-reasons.csv");
+				for (Map.Entry<String, Long> e : summary.reasons().entrySet()) {
+					writer.append(e.getKey() + "," + e.getValue() + "\n");
+				}
+				writer.close();
+			}
+		}
+
+		BufferedWriter newWriter(String name) throws UnsupportedEncodingException, FileNotFoundException {
+			return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(base + name), "gb2312"));
 		}
 	}
 	
-	static class ReduceAnalyzer {
+	/**
+	 * ʧ־мϺвȷʧԭRecordAssemblerƴɼ¼
+	 */
+	static class ReduceAnalyzer implements RecordAssembler.RecordHandler {
 		BufferedReader	reader			= null;
 
-		String IC_HSF = "HSFTimeOutException";
-		String DB_EXCEPTION_1 = "NoMoreDataSourceException";
-		String DB_EXCEPTION_2 = "UncategorizedSQLException"; // Could not create connection; - nested throwable: (com.mysql.jdbc.exceptions.jdbc4.MySQLNonTransientConnectionException: Could not create connection to database server. Attempted reconnect 3 times. Giving up.); - nested throwable: (com.taobao.datasource.resource.JBossResourceException: Could not create connection; - nested throwable: (com.mysql.jdbc.exceptions.jdbc4.MySQLNonTransientConnectionException: Could not create connection to database server. Attempted reconnect 3 times. Giving up.)); nested exception is com.ibatis.common.jdbc.exception.NestedSQLException:   
-		String DB_EXCEPTION_3 = "DataAccessResourceFailureException";
-		String ITEM_NOT_ENOUGH = "IC_ITEM_QUANTITY_NOT_ENOUGH_FOR_BUY";
-		String QUERY_DETAIL_FAILURE = "ѯϸ¼ʧ";
-		String ORDER_FINISH = "ʧܣ״̬¿ϸʧ";
-		String UPDATE_DETAIL_FAILURE = "¿ϸʧ";
-		String SKU_NOT_ENOUGH = "IC_SKU_QUANTITY_NOT_ENOUGH_FOR_BUY";
-		String INSERT_DTL_FAILURE = "ϸʧ";
-		String IC_ITEM_QUANTITY_OPTIMISTIC_LOCKING = "IC_ITEM_QUANTITY_OPTIMISTIC_LOCKING_FOR_BUY";
-		
+		EntryBatcher	batcher			= new EntryBatcher();
+
+		// ʧԭıǱreduce-reasons.conf
+		ReasonClassifier reasons = REASONS;
+
+		/** еASCIIֽ֣ڶȡʱҲҪеֱ */
+		String HEADER_KEY = "reduceQuantityByBizOrderId";
+
+		Pattern pattern = Pattern.compile("(\\d{4}-\\d{2}-\\d{1,2}) (\\d{1,2}:\\d{1,2}:\\d{1,2}) (.*? - reduceQuantityByBizOrderIdʧIpmException) =(\\d*),Ӷ=(\\d*),icItemId=(\\d*),skuId=(\\d*)(.*)");
+
 		String filepath	= null;
+
+		ByteLineScanner bytes = new ByteLineScanner();
+
+		RecordAssembler assembler = new RecordAssembler(this);
+
+		// ־
+		ReduceFailure entry = null;
+		boolean matched = false;
+
+		// isHeaderеıУŽbegin
+		Matcher header = null;
+		String headerLine = null;
 		
-		public ReduceAnalyzer(String filepath) throws UnsupportedEncodingException, FileNotFoundException {
+		public ReduceAnalyzer(String filepath) {
 			this.filepath = filepath;
-			reader = new BufferedReader(new InputStreamReader(new FileInputStream(filepath), "gb2312"));
 		}
 		
 		public void execute() throws IOException {
-			// ־
-			LogReduceInfoEntry entry = null;
-			boolean matched = false;
-
-			Pattern pattern = Pattern.compile("(\\d{4}-\\d{2}-\\d{1,2}) (\\d{1,2}:\\d{1,2}:\\d{1,2}) (.*? - reduceQuantityByBizOrderIdʧIpmException) =(\\d*),Ӷ=(\\d*),icItemId=(\\d*),skuId=(\\d*)(.*)");
+			reader = openLog(filepath);
 
 			// ־ 
 			String line = reader.readLine(); 
 			while (line != null) { 
-				Matcher matcher = pattern.matcher(line);
-				if (matcher.find()) {					
-					if (matched) {
-						// ļ
-						entries.add(entry);
-					}
-
-					entry = new LogReduceInfoEntry();
-					entry.time = matcher.group(2);
-					entry.bizId = matcher.group(4);
-					entry.subId = matcher.group(5);
-					entry.itemId = matcher.group(6);
-					entry.skuId = matcher.group(7); 
-
-					matched = match(entry, matched, line);
-				} else if (!matched) {
-					matched = match(entry, matched, line);
-				}
+				analyze(line);
  
 				line = reader.readLine();
 			}
+
+			// һ¼
+			end();
 			
+			batcher.close();
+
 			System.out.println(filepath + ": Done!");
 			
 			reader.close(); 
 		}
 
-		public boolean match(LogReduceInfoEntry entry, boolean matched, String line) {
-			if(entry == null) {
-				return matched;
+		/**
+		 * ֻļһΣֽڶȡֻбмȴƥԭвŽ룻
+		 * εļ¼ɱڵĶθ𣬵÷رbatcher
+		 */
+		public void execute(FileChannel channel, LineChunks.Chunk chunk) throws IOException {
+			metrics.read(chunk.size(), 0);
+			long lines = assembler.lines();
+			assembler.assemble(channel, chunk.start, chunk.end);
+			metrics.scanned(assembler.lines() - lines);
+		}
+
+		public void analyze(String line) {
+			batcher.scanned();
+			Matcher matcher = pattern.matcher(line);
+			if (matcher.find()) {
+				end();
+				begin(matcher, line);
+			} else if (entry != null && !matched) {
+				matched = match(entry, matched, line);
 			}
-			
-			if(line.contains(IC_HSF)) {
-				entry.reason = "IC_ERROR";
-				matched = true;
-			} else if(line.contains(DB_EXCEPTION_1)) {
-				entry.reason = DB_EXCEPTION_1;
-				matched = true;
-			} else if(line.contains(DB_EXCEPTION_2)) {
-				entry.reason = DB_EXCEPTION_2;
-				matched = true;
-			} else if(line.contains(DB_EXCEPTION_3)) {
-				entry.reason = DB_EXCEPTION_3;
-				matched = true;
-			} else if(line.contains(ITEM_NOT_ENOUGH)) {
-				entry.reason = "ITEM_NOT_ENOUGH";
-				matched = true;
-			} else if(line.contains(QUERY_DETAIL_FAILURE)) {
-				entry.reason = "QUERY_DTL_ERROR";
-				matched = true;
-			} else if(line.contains(ORDER_FINISH)) {
-				entry.reason = "ORDER_FINISH";
-				matched = true;
-			} else if(line.contains(UPDATE_DETAIL_FAILURE)) {
-				entry.reason = "UPDATE_DTL_FAILURE";
-				matched = true;
-			} else if(line.contains(SKU_NOT_ENOUGH)) {
-				entry.reason = "SKU_NOT_ENOUGH";
-				matched = true;
-			} else if(line.contains(INSERT_DTL_FAILURE)) {
-				entry.reason = "INSERT_DTL_FAILURE";
-				matched = true;
-			} else if(line.contains(IC_ITEM_QUANTITY_OPTIMISTIC_LOCKING)) {
-				entry.reason = "IC_ITEM_QUANTITY_OPTIMISTIC_LOCKING";
-				matched = true;
-			}  else {
-				if(entry.lineCnt < 2) {
-					entry.reason += line.replace(",", "[sp]").replace(" ", "");
-					entry.lineCnt++;
-					matched = false;
-				} else {
-					matched = true;
-				}
+		}
+
+		@Override
+		public boolean isHeader(ByteBuffer buffer, int from, int to) {
+			// Ҳߵɨexecuteڵм
+			bytes.reset(buffer, from, to);
+			if (!bytes.contains(HEADER_KEY)) {
+				return false;
+			}
+			String line = bytes.decode();
+			Matcher matcher = pattern.matcher(line);
+			if (!matcher.find()) {
+				return false;
+			}
+			header = matcher;
+			headerLine = line;
+			return true;
+		}
+
+		@Override
+		public boolean begin(ByteBuffer buffer, int from, int to) {
+			begin(header, headerLine);
+			header = null;
+			headerLine = null;
+			return matched;
+		}
+
+		@Override
+		public boolean append(ByteBuffer buffer, int from, int to) {
+			if (!matched) {
+				matched = match(entry, matched, bytes.reset(buffer, from, to).decode());
 			}
 			return matched;
 		}
+
+		/**
+		 * ¼ԭȷĲ
+		 */
+		@Override
+		public void end() {
+			if (entry != null && matched) {
+				// ļ
+				batcher.add(entry);
+			}
+			entry = null;
+			matched = false;
+		}
+
+		void begin(Matcher matcher, String line) {
+			batcher.matched(PipelineMetrics.REDUCE_HEADER);
+			entry = new ReduceFailure();
+			entry.time = matcher.group(2);
+			entry.bizId = matcher.group(4);
+			entry.subId = matcher.group(5);
+			entry.itemId = matcher.group(6);
+			entry.skuId = matcher.group(7); 
+
+			matched = match(entry, false, line);
+		}
+
+		public boolean match(ReduceFailure entry, boolean matched, String line) {
+			if(entry == null) {
+				return matched;
+			}
+			return entry.match(reasons, line);
+		}
 	}
 	
 
-	static class LogFormatter {
+	static class LogFormatter implements ByteLines.Handler {
 		BufferedReader	reader			= null;
 
+		EntryBatcher	batcher			= new EntryBatcher();
+
 		String			reduceKey		= "reduce";
 		String			withholdKey		= "withhold";
 
-		Pattern			reduceRegex		= Pattern
-												.compile("(\\d{4}-\\d{2}-\\d{1,2}) (\\d{1,2}:\\d{1,2}:\\d{1,2}) (.*? - Final-reduce~IA .*?,tc,)(\\d{1,5})ms\\] orderid=(\\d*) user_id=(\\d*) order_sub_ids=(\\d*)/ \\[(T|F->.*)\\]");
-		Pattern			withholdRegex	= Pattern
-												.compile("(\\d{4}-\\d{2}-\\d{1,2}) (\\d{1,2}:\\d{1,2}:\\d{1,2}) (.*? - P1-WithholdInventory-Batch .*?,tc-alipay,)(\\d{1,5})ms\\] orderid=(\\d*) \\[(T|F->.*)\\] ,(Enough|Not-Enough)");
+		// reduceRegex/withholdRegexLogLineScanner.REDUCE/WITHHOLDɨò׼ʱ˵
+		LogLineScanner	scanner			= new LogLineScanner(FAST_SCAN);
+		ByteLineScanner	bytes			= new ByteLineScanner(FAST_SCAN);
 
 		Pattern 		fullWithholdRegex = Pattern.compile("");
 		
-		public LogFormatter(String filepath) throws UnsupportedEncodingException, FileNotFoundException {
-			reader = new BufferedReader(new InputStreamReader(new FileInputStream(filepath), "gb2312"));
+		public LogFormatter(String filepath) throws IOException {
+			reader = openLog(filepath);
 		}
 
-		public void execute() {
-			threadCnt.incrementAndGet();
+		public LogFormatter(BufferedReader reader) {
+			this.reader = reader;
+		}
+
+		public LogFormatter() {
+		}
 
+		public void execute() {
 			// ־
 			String line = null;
 			try {
-				line = reader.readLine();
-			} catch (IOException e1) {
-			}
-
-			while (line != null) {
-				Matcher matcher = reduceRegex.matcher(line);
-
-				if (matcher.find()) {
-					LogReduceEntry entry = new LogReduceEntry();
-					entry.time = matcher.group(2);
-					entry.bizId = matcher.group(5);
-					entry.subId = matcher.group(7);
-					entry.succ = matcher.group(8);
-					entry.user = matcher.group(6);
-					entry.using = matcher.group(4);
-					entries.add(entry);
-				} else {
-					matcher = withholdRegex.matcher(line);
-					if (matcher.find()) {
-						LogWithholdEntry entry = new LogWithholdEntry();
-						entry.time = matcher.group(2);
-						entry.using = matcher.group(4);
-						entry.bizId = matcher.group(5);
-						entry.succ = matcher.group(6);
-						entry.enough = matcher.group(7);
-						entries.add(entry);
-					}
-				}
-
-				try {
-					line = reader.readLine();
-				} catch (IOException e) {
+				while ((line = reader.readLine()) != null) {
+					format(line);
 				}
+			} catch (IOException e) {
+				// ʧ(.gzض)ͣһ
+				e.printStackTrace();
 			}
 
+			batcher.close();
+
 			try {
 				reader.close();
 			} catch (IOException e) {
 			}
+		}
+
+		public void execute(ByteBuffer buffer) {
+			ByteLines.forEachLine(buffer, this);
+
+			batcher.close();
+		}
+
+		public void format(String line) {
+			batcher.scanned();
+			if (scanner.reduce(line)) {
+				reduce(scanner);
+			} else if (scanner.withhold(line)) {
+				withhold(scanner);
+			}
+		}
+
+		@Override
+		public void format(ByteBuffer buffer, int from, int to) {
+			batcher.scanned();
+			if (bytes.reduce(buffer, from, to)) {
+				reduce(bytes);
+			} else if (bytes.withhold(buffer, from, to)) {
+				withhold(bytes);
+			}
+		}
 
-			threadCnt.decrementAndGet();
+		void reduce(AbstractLineScanner scanner) {
+			batcher.matched(PipelineMetrics.REDUCE);
+			int row = batcher.add(EntryTable.REDUCE);
+			EntryTable table = batcher.table;
+			table.setTime(row, scanner, 2);
+			table.setDate(row, scanner, 1);
+			table.setLong(EntryTable.BIZ_ID, row, scanner, 5);
+			table.setLong(EntryTable.SUB_ID, row, scanner, 7);
+			table.setText(EntryTable.SUCC, row, scanner.group(8));
+			table.setLong(EntryTable.USER_ID, row, scanner, 6);
+			table.setInt(EntryTable.USING, row, scanner, 4);
+			table.setText(EntryTable.CALLER, row, scanner.caller());
+			code(table, row, scanner.group(8));
 		}
 
+		void withhold(AbstractLineScanner scanner) {
+			batcher.matched(PipelineMetrics.WITHHOLD);
+			int row = batcher.add(EntryTable.WITHHOLD);
+			EntryTable table = batcher.table;
+			table.setTime(row, scanner, 2);
+			table.setDate(row, scanner, 1);
+			table.setInt(EntryTable.USING, row, scanner, 4);
+			table.setLong(EntryTable.BIZ_ID, row, scanner, 5);
+			table.setText(EntryTable.SUCC, row, scanner.group(6));
+			table.setText(EntryTable.ENOUGH, row, scanner.group(7));
+			table.setText(EntryTable.CALLER, row, scanner.caller());
+			code(table, row, scanner.group(6));
+		}
+
+		// F->xxxĴ룬ֻڻ
+		void code(EntryTable table, int row, String succ) {
+			if (succ.startsWith("F->")) {
+				table.setText(EntryTable.CODE, row, succ.substring(3));
+			}
+		}
 	}
 
-	static class LogFullWithholdFormatter {
+	static class LogFullWithholdFormatter implements ByteLines.Handler {
 		BufferedReader	reader			= null;
 
+		EntryBatcher	batcher			= new EntryBatcher();
+
 		String			reduceKey		= "reduce";
 		String			withholdKey		= "withhold";
 
-		Pattern			batchWithholdRegex		= Pattern
-												.compile("(\\d{4}-\\d{2}-\\d{1,2}) (\\d{1,2}:\\d{1,2}:\\d{1,2}) (.*? - .*WithholdInventory-Batch.*?,.*,)(\\d{1,5})ms\\] orderid=(\\d*) \\[(T|F->.*)\\] ,Not-Enough");
-		Pattern			singleWithholdRegex	= Pattern
-												.compile("(\\d{4}-\\d{2}-\\d{1,2}) (\\d{1,2}:\\d{1,2}:\\d{1,2}) (.*? - .*WithholdInventory-Single.*?,.*,)(\\d{1,5})ms\\] suborderid=(\\d*),quantity=(\\d*),AfterPayment=(true|false),item=(\\d*) \\[(T|F->.*)\\] (.*),Not-Enough");
+		// batchWithholdRegex/singleWithholdRegexLogLineScanner.BATCH_WITHHOLD/SINGLE_WITHHOLD
+		LogLineScanner	scanner			= new LogLineScanner(FAST_SCAN);
+		ByteLineScanner	bytes			= new ByteLineScanner(FAST_SCAN);
 
 		Pattern 		fullWithholdRegex = Pattern.compile("");
 		
-		public LogFullWithholdFormatter(String filepath) throws UnsupportedEncodingException, FileNotFoundException {
-			reader = new BufferedReader(new InputStreamReader(new FileInputStream(filepath), "gb2312"));
+		public LogFullWithholdFormatter(String filepath) throws IOException {
+			reader = openLog(filepath);
 		}
 
-		public void execute() {
-			threadCnt.incrementAndGet();
+		public LogFullWithholdFormatter(BufferedReader reader) {
+			this.reader = reader;
+		}
 
+		public LogFullWithholdFormatter() {
+		}
+
+		public void execute() {
 			// ־
 			String line = null;
 			try {
-				line = reader.readLine();
-			} catch (IOException e1) {
+				while ((line = reader.readLine()) != null) {
+					format(line);
+				}
+			} catch (IOException e) {
+				// ʧ(.gzض)ͣһ
+				e.printStackTrace();
 			}
 
-			while (line != null) {
-				Matcher matcher = batchWithholdRegex.matcher(line);
+			batcher.close();
 
-				try {
-				if (matcher.find()) {
-					LogFullWithholdEntry entry = new LogFullWithholdEntry();
-					entry.time = matcher.group(2);
-					entry.bizId = matcher.group(5);
-					entry.succ = matcher.group(6).equals("T") + "";
-					// entry.enough = matcher.group(7).equals("Enough") + "";
-					entry.using = matcher.group(4);
-					if(!entry.succ.equals("true")) {
-						entry.code = matcher.group(6).substring(3);
-					}
-					entries.add(entry);
-				} else {
-					matcher = singleWithholdRegex.matcher(line);
-					if (matcher.find()) {
-						LogFullWithholdEntry entry = new LogFullWithholdEntry();
-						entry.time = matcher.group(2);
-						entry.using = matcher.group(4);
-						entry.subId = matcher.group(5);
-						entry.quantity = matcher.group(6);
-						entry.afterPayment = matcher.group(7);
-						entry.itemId = matcher.group(8);
-						String succ = matcher.group(9);
-						entry.succ = succ.equals("T") + "";
-						if(!entry.succ.equals("true")) {
-							entry.code = succ.substring(3, succ.indexOf("F->", 4));
-						}
-						entries.add(entry);
-					}
-				}
-				} catch(Exception e) {
-					e.printStackTrace();
-				}
+			try {
+				reader.close();
+			} catch (IOException e) {
+			}
+		}
 
-				try {
-					line = reader.readLine();
-				} catch (IOException e) {
+		public void execute(ByteBuffer buffer) {
+			ByteLines.forEachLine(buffer, this);
+
+			batcher.close();
+		}
+
+		public void format(String line) {
+			batcher.scanned();
+			try {
+				if (scanner.batchWithhold(line)) {
+					batchWithhold(scanner);
+				} else if (scanner.singleWithhold(line)) {
+					singleWithhold(scanner);
 				}
+			} catch(Exception e) {
+				e.printStackTrace();
 			}
+		}
 
+		@Override
+		public void format(ByteBuffer buffer, int from, int to) {
+			batcher.scanned();
 			try {
-				reader.close();
-			} catch (IOException e) {
+				if (bytes.batchWithhold(buffer, from, to)) {
+					batchWithhold(bytes);
+				} else if (bytes.singleWithhold(buffer, from, to)) {
+					singleWithhold(bytes);
+				}
+			} catch(Exception e) {
+				e.printStackTrace();
+			}
+		}
+
+		void batchWithhold(AbstractLineScanner scanner) {
+			batcher.matched(PipelineMetrics.BATCH_WITHHOLD);
+			String succ = scanner.group(6);
+			boolean ok = succ.equals("T");
+
+			int row = batcher.add(EntryTable.FULL_WITHHOLD);
+			EntryTable table = batcher.table;
+			table.setTime(row, scanner, 2);
+			table.setDate(row, scanner, 1);
+			table.setLong(EntryTable.BIZ_ID, row, scanner, 5);
+			table.setText(EntryTable.SUCC, row, ok + "");
+			// table.setText(EntryTable.ENOUGH, row, scanner.group(7).equals("Enough") + "");
+			table.setInt(EntryTable.USING, row, scanner, 4);
+			table.setText(EntryTable.CALLER, row, scanner.caller());
+			if(!ok) {
+				table.setText(EntryTable.CODE, row, succ.substring(3));
 			}
+		}
 
-			threadCnt.decrementAndGet();
+		void singleWithhold(AbstractLineScanner scanner) {
+			batcher.matched(PipelineMetrics.SINGLE_WITHHOLD);
+			// ȡ쳣׷У쳣ʱж
+			String succ = scanner.group(9);
+			boolean ok = succ.equals("T");
+			String code = ok ? null : succ.substring(3, succ.indexOf("F->", 4));
+
+			int row = batcher.add(EntryTable.FULL_WITHHOLD);
+			EntryTable table = batcher.table;
+			table.setTime(row, scanner, 2);
+			table.setDate(row, scanner, 1);
+			table.setInt(EntryTable.USING, row, scanner, 4);
+			table.setLong(EntryTable.SUB_ID, row, scanner, 5);
+			table.setInt(EntryTable.QUANTITY, row, scanner, 6);
+			table.setText(EntryTable.AFTER_PAYMENT, row, scanner.group(7));
+			table.setLong(EntryTable.ITEM_ID, row, scanner, 8);
+			table.setText(EntryTable.SUCC, row, ok + "");
+			table.setText(EntryTable.CODE, row, code);
+			table.setText(EntryTable.CALLER, row, scanner.caller());
 		}
 	}
 	
@@ -446,8 +1052,6 @@ public class LogAnalyzer {
 		
 		@Override
 		public void run() {
-			threadCnt.incrementAndGet();
-			
 			while (true) {
 				String filename = files.poll();
 				if (filename == null) {
@@ -457,14 +1061,308 @@ public class LogAnalyzer {
 				try {
 					new ReduceAnalyzer(baseDir + seperator + filename).execute();
 				} catch (Exception e) {
+					e.printStackTrace();
 				}
 			}
 			
-			threadCnt.decrementAndGet();
 		}
 		
 	}
 
+	/**
+	 * mmapʽȡļLineRangeSchedulerֽڷΧз֣߳͵ʣµ
+	 */
+	static class MappedLogTask implements Runnable {
+		private static final long	MIN_CHUNK_SIZE	= 4 * 1024 * 1024;
+
+		private String				baseDir;
+		private int					threads;
+		private boolean				full;
+		/** ֱӰֽڽν */
+		private boolean				bytes;
+
+		public MappedLogTask(String baseDir, int threads, boolean full) {
+			this(baseDir, threads, full, false);
+		}
+
+		public MappedLogTask(String baseDir, int threads, boolean full, boolean bytes) {
+			this.baseDir = baseDir;
+			this.threads = threads;
+			this.full = full;
+			this.bytes = bytes;
+		}
+
+		@Override
+		public void run() {
+			LineRangeScheduler scheduler = new LineRangeScheduler(threads, MIN_CHUNK_SIZE);
+			List<FileChannel> channels = Lists.newArrayList();
+
+			try {
+				while (true) {
+					String filename = files.poll();
+					if (filename == null) {
+						break;
+					}
+
+					// .gzmmapһʽ
+					if (isGzip(filename)) {
+						startProducer(new GzipLogTask(baseDir + seperator + filename, full), "GzipLogTask-" + filename);
+						continue;
+					}
+
+					try {
+						FileChannel channel = new RandomAccessFile(baseDir + seperator + filename, "r").getChannel();
+						channels.add(channel);
+						scheduler.add(channel, 0, channel.size());
+					} catch (IOException e) {
+						e.printStackTrace();
+					}
+				}
+
+				scheduler.run(new LineRangeScheduler.Handler() {
+
+					@Override
+					public void handle(FileChannel channel, LineChunks.Chunk chunk) throws Exception {
+						parse(chunk, channel);
+					}
+				});
+			} catch (Exception e) {
+				e.printStackTrace();
+			} finally {
+				scheduler.shutdown();
+
+				for (FileChannel channel : channels) {
+					try {
+						channel.close();
+					} catch (IOException e) {
+					}
+				}
+			}
+		}
+
+		void parse(LineChunks.Chunk chunk, FileChannel channel) throws IOException {
+			parse(chunk, channel, full, bytes);
+		}
+
+		static void parse(LineChunks.Chunk chunk, FileChannel channel, boolean full, boolean bytes) throws IOException {
+			metrics.read(chunk.size(), 0);
+
+			if (bytes) {
+				if (full) {
+					new LogFullWithholdFormatter().execute(chunk.map(channel));
+				} else {
+					new LogFormatter().execute(chunk.map(channel));
+				}
+				return;
+			}
+
+			// α߽綼'\n'֮gb2312ַֽﲻ0x0AÿοԶ
+			BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteBufferInputStream(chunk.map(channel)), "gb2312"));
+			if (full) {
+				new LogFullWithholdFormatter(reader).execute();
+			} else {
+				new LogFormatter(reader).execute();
+			}
+		}
+	}
+
+	/**
+	 * ʽһ.gz־ѹParallelGzipInputStreamĺ̨߳ֻ߳ܽ
+	 */
+	static class GzipLogTask implements Runnable {
+		private String	filepath;
+		private boolean	full;
+
+		public GzipLogTask(String filepath, boolean full) {
+			this.filepath = filepath;
+			this.full = full;
+		}
+
+		@Override
+		public void run() {
+			try {
+				if (full) {
+					new LogFullWithholdFormatter(filepath).execute();
+				} else {
+					new LogFormatter(filepath).execute();
+				}
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * ģʽʱɨĿ¼ֻļ׷ӵݣ־
+	 * ÿдѶȡλô浽csv/follow.checkpointŶ
+	 */
+	static class FollowTask implements Runnable {
+		private static final long	MIN_CHUNK_SIZE	= 4 * 1024 * 1024;
+
+		/** -Danalyzer.follow.interval ֮ļ() */
+		private static final long	INTERVAL		= Long.getLong("analyzer.follow.interval", 5000);
+
+		private File				folder;
+		private int					threads;
+		private File				checkpoint;
+
+		/** 򿪺굱ǰһ־˳ */
+		private final CountDownLatch	stop		= new CountDownLatch(1);
+
+		public FollowTask(File folder, int threads, File checkpoint) {
+			this.folder = folder;
+			this.threads = threads;
+			this.checkpoint = checkpoint;
+		}
+
+		public void stop() {
+			stop.countDown();
+		}
+
+		@Override
+		public void run() {
+			LineRangeScheduler scheduler = new LineRangeScheduler(threads, MIN_CHUNK_SIZE);
+			try {
+				FileTailer tailer = new FileTailer(folder, new FilenameFilter() {
+
+					@Override
+					public boolean accept(File dir, String name) {
+						// 鵵.gz׷ӣ
+						return name.contains("inventoryplatform") && !isGzip(name);
+					}
+				}, checkpoint);
+
+				while (!Thread.currentThread().isInterrupted()) {
+					try {
+						poll(tailer, scheduler);
+					} catch (IOException e) {
+						// ļɾһʱ˵ֻӰһ֣һִӼµλ
+						e.printStackTrace();
+					}
+
+					if (stop.await(INTERVAL, TimeUnit.MILLISECONDS)) {
+						break;
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (IOException e) {
+				e.printStackTrace();
+			} finally {
+				scheduler.shutdown();
+			}
+		}
+
+		/**
+		 * һ֣׷ӵУдļȡλ
+		 */
+		private void poll(FileTailer tailer, final LineRangeScheduler scheduler) throws IOException, InterruptedException {
+			long read = tailer.poll(new FileTailer.Listener() {
+
+				@Override
+				public void append(File file, FileChannel channel, long from, long to) throws IOException {
+					scheduler.add(channel, from, to);
+					try {
+						scheduler.run(new LineRangeScheduler.Handler() {
+
+							@Override
+							public void handle(FileChannel channel, LineChunks.Chunk chunk) throws Exception {
+								MappedLogTask.parse(chunk, channel, true, true);
+							}
+						});
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			});
+
+			if (read > 0) {
+				// ֵждļŴȡλ
+				awaitWritten(queuedTables.get());
+				tailer.save();
+				System.out.println("follow: " + read + " bytes");
+			}
+		}
+	}
+
+	/**
+	 * ʧ־Ĳа棺ļֽڷΧжβнεļ¼RecordAssembler
+	 */
+	static class MappedReduceTask implements Runnable {
+		private static final long	MIN_CHUNK_SIZE	= 4 * 1024 * 1024;
+
+		private String				baseDir;
+		private int					threads;
+
+		public MappedReduceTask(String baseDir, int threads) {
+			this.baseDir = baseDir;
+			this.threads = threads;
+		}
+
+		@Override
+		public void run() {
+			LineRangeScheduler scheduler = new LineRangeScheduler(threads, MIN_CHUNK_SIZE);
+			List<FileChannel> channels = Lists.newArrayList();
+
+			try {
+				while (true) {
+					String filename = files.poll();
+					if (filename == null) {
+						break;
+					}
+
+					if (isGzip(filename)) {
+						final String filepath = baseDir + seperator + filename;
+						startProducer(new Runnable() {
+
+							@Override
+							public void run() {
+								try {
+									new ReduceAnalyzer(filepath).execute();
+								} catch (IOException e) {
+									e.printStackTrace();
+								}
+							}
+						}, "GzipReduceTask-" + filename);
+						continue;
+					}
+
+					try {
+						FileChannel channel = new RandomAccessFile(baseDir + seperator + filename, "r").getChannel();
+						channels.add(channel);
+						scheduler.add(channel, 0, channel.size());
+					} catch (IOException e) {
+						e.printStackTrace();
+					}
+				}
+
+				scheduler.run(new LineRangeScheduler.Handler() {
+
+					@Override
+					public void handle(FileChannel channel, LineChunks.Chunk chunk) throws Exception {
+						ReduceAnalyzer analyzer = new ReduceAnalyzer(null);
+						try {
+							analyzer.execute(channel, chunk);
+						} finally {
+							analyzer.batcher.close();
+						}
+					}
+				});
+			} catch (Exception e) {
+				e.printStackTrace();
+			} finally {
+				scheduler.shutdown();
+
+				for (FileChannel channel : channels) {
+					try {
+						channel.close();
+					} catch (IOException e) {
+					}
+				}
+			}
+		}
+	}
+
 	public static void main(String[] args) throws IOException {
 		realMain(args);
 
@@ -472,7 +1370,7 @@ public class LogAnalyzer {
 		// regex();
 	}
 
-	public static void realMain(String[] args) throws UnsupportedEncodingException, FileNotFoundException {
+	public static void realMain(String[] args) throws IOException {
 		File folder = null;
 		if (args.length == 0) {
 			folder = new File(".");
@@ -491,8 +1389,27 @@ public class LogAnalyzer {
 		if(args.length > 1) {
 			cnt = Integer.valueOf(args[1]);
 		}
-		for (int i = 0; i < cnt; i++) {
-			new Thread(new LogFullWithholdTask(folder.getAbsolutePath())).start();
+
+		// ȡʽ: mmap(ĬϣļֽڷΧжΣLineRangeSchedulerн.gzʽ)
+		//        | bytes(mmapֱӰֽڽ) | stream(һ̶߳һļļ١Сʱв)
+		//        | follow(һֱУֻ׷ӵ)
+		//        | reduce(ֻʧܣһ̶߳һļ) | reduce-mmap(ʧܣļжβ)
+		//        | index(šʱ) | query <|HH:mm-HH:mm>()
+		String mode = "mmap";
+		if(args.length > 2) {
+			mode = args[2];
+		}
+
+		if ("index".equals(mode)) {
+			buildIndex(folder, cnt);
+			return;
+		} else if ("query".equals(mode)) {
+			if (args.length < 4) {
+				System.out.println("Usage: java LogAnalyzer dir threads query <orderId|HH:mm-HH:mm>");
+				return;
+			}
+			queryIndex(folder, args[3]);
+			return;
 		}
 
 		File outputFolder = new File(folder.getAbsolutePath() + seperator + "csv" + seperator);
@@ -500,14 +1417,98 @@ public class LogAnalyzer {
 			outputFolder.mkdir();
 		}
 
-		new LogFlusher(folder.getAbsolutePath() + seperator + "csv" + seperator).start();
+		final LogFlusher flusher = new LogFlusher(folder.getAbsolutePath() + seperator + "csv" + seperator, "follow".equals(mode));
+		flusher.start();
+
+		if (PROGRESS_INTERVAL > 0) {
+			startProgressReporter(PROGRESS_INTERVAL);
+		}
+
+		if ("mmap".equals(mode)) {
+			startProducer(new MappedLogTask(folder.getAbsolutePath(), cnt, true), "MappedLogTask");
+		} else if ("bytes".equals(mode)) {
+			startProducer(new MappedLogTask(folder.getAbsolutePath(), cnt, true, true), "MappedLogTask");
+		} else if ("reduce".equals(mode)) {
+			for (int i = 0; i < cnt; i++) {
+				startProducer(new LogReduceTask(folder.getAbsolutePath()), "LogReduceTask-" + i);
+			}
+		} else if ("reduce-mmap".equals(mode)) {
+			startProducer(new MappedReduceTask(folder.getAbsolutePath(), cnt), "MappedReduceTask");
+		} else if ("follow".equals(mode)) {
+			final FollowTask follow = new FollowTask(folder.getAbsoluteFile(), cnt, new File(folder.getAbsolutePath() + seperator + "csv" + seperator + "follow.checkpoint"));
+			startProducer(follow, "FollowTask");
+
+			// Ctrl-C˳ʱ굱ǰһ֣ϸͻдꡢȡλô
+			Runtime.getRuntime().addShutdownHook(new Thread() {
+
+				@Override
+				public void run() {
+					follow.stop();
+					try {
+						flusher.awaitDone(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+					}
+				}
+			});
+		} else {
+			for (int i = 0; i < cnt; i++) {
+				startProducer(new LogFullWithholdTask(folder.getAbsolutePath()), "LogFullWithholdTask-" + i);
+			}
+		}
+
+		// 񶼵ǼˣͷrealMainеһ
+		producerDone();
+	}
+
+	/**
+	 * ɨһ־dir/index½źͷgzļܰƫƶλ
+	 */
+	static void buildIndex(File folder, int threads) throws IOException {
+		List<File> logs = Lists.newArrayList();
+		for (String filename : files) {
+			if (!isGzip(filename)) {
+				logs.add(new File(folder, filename));
+			}
+		}
+
+		long begin = System.currentTimeMillis();
+		LogIndexBuilder builder = new LogIndexBuilder(logs);
+		try {
+			builder.build(new File(folder, "index"), threads);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		System.out.println("Indexed " + logs.size() + " files, " + builder.orders() + " order ids in " + (System.currentTimeMillis() - begin) + "ms");
+	}
+
+	static void queryIndex(File folder, String query) throws IOException {
+		long begin = System.nanoTime();
+		LogIndex index = new LogIndex(folder, new File(folder, "index"));
+		try {
+			LogIndex.LineHandler printer = new LogIndex.LineHandler() {
+
+				@Override
+				public void line(String file, long offset, String line) {
+					System.out.println(file + ":" + offset + ": " + line);
+				}
+			};
+
+			int lines;
+			int dash = query.indexOf('-');
+			if (dash > 0) {
+				lines = index.between(LogIndex.parseMinute(query.substring(0, dash)), LogIndex.parseMinute(query.substring(dash + 1)), printer);
+			} else {
+				lines = index.find(Long.parseLong(query), printer);
+			}
+			System.err.println(lines + " lines in " + (System.nanoTime() - begin) / 1000000 + "ms");
+		} finally {
+			index.close();
+		}
 	}
 
 	public static void regex() {
-		String log = "2012-11-11 00:20:11 WARN IPM-Trade - P1-WithholdInventory-Batch [172.23.230.184,tc-alipay,3008ms] orderid=194630958498828 [T] ,Not-Enough";
-		String log2 = "2012-11-11 00:20:07 WARN IPM-Trade - P1-WithholdInventory-Batch [172.24.168.109,tc-alipay,1016ms] orderid=194638954807578 [F->IP_ILLEGAL_INVENTORY_STATUS_Complete] ,Not-Enough";
-		String log3 = "2012-11-11 00:07:18 WARN IPM-Trade - P1-WithholdInventory-Batch-Buy [172.23.36.66,tmall_buy,10015ms] orderid=194654110384883 [T] ,Not-Enough";
-		String log4 = "2012-11-11 00:07:13 WARN IPM-Trade - P1-WithholdInventory-Single[172.23.180.55,tf,1ms] suborderid=246481681998782,quantity=1,AfterPayment=true,item=16269325560 [F->IP_QUERY_Inventory_Detail_ERRORF->IpmExceptionѯԤ ӶţӶ=246481681998782,itemId=16269325560] I->IpmExceptionѯԤ ӶţӶ=246481681998782,itemId=16269325560,Not-Enough,null";
+		String log2 = SampleLogs.LINES[1];
 		String regex = "(\\d{4}-\\d{2}-\\d{1,2}) (\\d{1,2}:\\d{1,2}:\\d{1,2}) (.*? - .*WithholdInventory-Batch.*?,.*,)(\\d{1,5})ms\\] orderid=(\\d*) \\[(T|F->.*)\\] ,(Enough|Not-Enough)";
 		Pattern pattern = Pattern.compile(regex);
 		Pattern pattern2 = Pattern.compile("(\\d{4}-\\d{2}-\\d{1,2}) (\\d{1,2}:\\d{1,2}:\\d{1,2}) (.*? - .*WithholdInventory-Single.*?,.*,)(\\d{1,5})ms\\] suborderid=(\\d*),quantity=(\\d*),AfterPayment=(true|false),item=(\\d*) \\[(T|F->.*)\\] (.*),(Enough|Not-Enough)");
@@ -519,6 +1520,33 @@ public class LogAnalyzer {
 				System.out.println(matcher.group(i++));
 			}
 		}
+
+		// ɨԱ
+		String[] logs = SampleLogs.LINES;
+		Pattern[] patterns = new Pattern[] { LogLineScanner.BATCH_WITHHOLD, LogLineScanner.SINGLE_WITHHOLD, LogLineScanner.REDUCE, LogLineScanner.WITHHOLD };
+		LogLineScanner scanner = new LogLineScanner();
+		for (String line : logs) {
+			for (Pattern p : patterns) {
+				boolean found;
+				if (p == LogLineScanner.BATCH_WITHHOLD) {
+					found = scanner.batchWithhold(line);
+				} else if (p == LogLineScanner.SINGLE_WITHHOLD) {
+					found = scanner.singleWithhold(line);
+				} else if (p == LogLineScanner.REDUCE) {
+					found = scanner.reduce(line);
+				} else {
+					found = scanner.withhold(line);
+				}
+
+				matcher = p.matcher(line);
+				boolean same = found == matcher.find();
+				for (int g = 1; same && found && g <= matcher.groupCount(); g++) {
+					same = matcher.group(g).equals(scanner.group(g));
+				}
+				System.out.println((same ? "OK   " : "DIFF ") + (found ? "match  " : "nomatch") + " " + line.substring(0, 60));
+			}
+		}
+		System.out.println("fallbacks: " + scanner.fallbacks());
 	}
 
 	public static void demo(String[] args) throws UnsupportedEncodingException, FileNotFoundException, IOException {
@@ -0,0 +1,96 @@
+package com.shansun.demo.forkjoin;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ForkJoinPoolPI4/(1+x^2)[0,1]е֣䳬ֵͶ԰֣
+ * һforkȥһԼ㡣̶ֵۼӣΪȵĲգӦֺͲͼ{@link Integrator}
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class ForkJoinPI {
+
+	public static final int		DEFAULT_STEPS		= 100000000;
+
+	/** ÿҶٲ */
+	public static final int		DEFAULT_THRESHOLD	= 100000;
+
+	static class IntegrateTask extends RecursiveTask<Double> {
+
+		private static final long	serialVersionUID	= 1L;
+
+		final int					from;
+		final int					to;
+		final double				step;
+		final int					threshold;
+
+		IntegrateTask(int from, int to, double step, int threshold) {
+			this.from = from;
+			this.to = to;
+			this.step = step;
+			this.threshold = threshold;
+		}
+
+		@Override
+		protected Double compute() {
+			if (to - from <= threshold) {
+				return sum(from, to, step);
+			}
+			int mid = (from + to) >>> 1;
+			IntegrateTask left = new IntegrateTask(from, mid, step, threshold);
+			left.fork();
+			double right = new IntegrateTask(mid, to, step, threshold).compute();
+			return left.join() + right;
+		}
+	}
+
+	/**
+	 * [from, to)ĺֵ֮ͣδ˲
+	 */
+	static double sum(int from, int to, double step) {
+		double sum = 0.0;
+		for (int i = from; i < to; i++) {
+			double x = (i + 0.5) * step;
+			sum += 4.0 / (1.0 + x * x);
+		}
+		return sum;
+	}
+
+	public static double serial(int steps) {
+		double step = 1.0 / steps;
+		return step * sum(0, steps, step);
+	}
+
+	public static double parallel(ForkJoinPool pool, int steps, int threshold) {
+		double step = 1.0 / steps;
+		return step * pool.invoke(new IntegrateTask(0, steps, step, Math.max(1, threshold)));
+	}
+
+	/**
+	 * ÷ForkJoinPI [] [ֵ]
+	 */
+	public static void main(String[] args) {
+		int steps = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_STEPS;
+		int threshold = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_THRESHOLD;
+
+		ForkJoinPool pool = new ForkJoinPool();
+		System.err.println("I have " + pool.getParallelism() + " processors here!");
+
+		long start = System.nanoTime();
+		double pi = parallel(pool, steps, threshold);
+		System.err.println("Parallel Used " + (System.nanoTime() - start) / 1000000 + " ms");
+
+		start = System.nanoTime();
+		double serial = serial(steps);
+		System.err.println("Serial Used " + (System.nanoTime() - start) / 1000000 + " ms");
+
+		System.out.println(pi);
+		System.out.println(serial);
+		System.out.println(Math.PI);
+
+		pool.shutdown();
+	}
+}
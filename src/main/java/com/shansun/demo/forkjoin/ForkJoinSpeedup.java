@@ -0,0 +1,203 @@
+package com.shansun.demo.forkjoin;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import com.google.common.collect.Lists;
+
+/**
+ * ForkJoinPI/ForkJoinSum/IntegratorԴа汾ļٱȣжȴ1ʼֱCPUÿֵһ飬
+ * ÿԤȣȡɴһ
+ * <p>
+ * Integrator"ֵ"СҶӲа汾ǵ̳߳ء
+ * ģ-Dforkjoin.pi.steps-Dforkjoin.sum.units-Dforkjoin.integrator.stepsĬôа汾ڼٺ
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class ForkJoinSpeedup {
+
+	static final int	WARMUP	= 2;
+
+	interface Kernel {
+
+		String name();
+
+		int[] thresholds();
+
+		double serial();
+
+		double parallel(ForkJoinPool pool, int threshold);
+	}
+
+	static class PIKernel implements Kernel {
+
+		final int	steps	= Integer.getInteger("forkjoin.pi.steps", ForkJoinPI.DEFAULT_STEPS);
+
+		public String name() {
+			return "pi steps=" + steps;
+		}
+
+		public int[] thresholds() {
+			return new int[] { 1000, 10000, ForkJoinPI.DEFAULT_THRESHOLD, 1000000 };
+		}
+
+		public double serial() {
+			return ForkJoinPI.serial(steps);
+		}
+
+		public double parallel(ForkJoinPool pool, int threshold) {
+			return ForkJoinPI.parallel(pool, steps, threshold);
+		}
+	}
+
+	static class SumKernel implements Kernel {
+
+		final int	units	= Integer.getInteger("forkjoin.sum.units", 10000);
+
+		public String name() {
+			return "sum units=" + units;
+		}
+
+		public int[] thresholds() {
+			return new int[] { 1, 16, ForkJoinSum.DEFAULT_THRESHOLD, 1024 };
+		}
+
+		public double serial() {
+			return ForkJoinSum.serial(units);
+		}
+
+		public double parallel(ForkJoinPool pool, int threshold) {
+			return ForkJoinSum.parallel(pool, units, threshold);
+		}
+	}
+
+	static class IntegratorKernel implements Kernel {
+
+		final long	steps	= Long.getLong("forkjoin.integrator.steps", 200000000L);
+
+		public String name() {
+			return "integrator steps=" + steps;
+		}
+
+		public int[] thresholds() {
+			return new int[] { Integrator.BLOCK, (int) Integrator.DEFAULT_MIN_LEAF, 1 << 20 };
+		}
+
+		public double serial() {
+			ForkJoinPool pool = new ForkJoinPool(1);
+			try {
+				return new Integrator(pool, steps).integrate(PI.FUNCTION, 0.0, 1.0, steps);
+			} finally {
+				pool.shutdown();
+			}
+		}
+
+		public double parallel(ForkJoinPool pool, int threshold) {
+			return new Integrator(pool, threshold).integrate(PI.FUNCTION, 0.0, 1.0, steps);
+		}
+	}
+
+	/**
+	 * ж1, 2, 4...һCPU
+	 */
+	static List<Integer> parallelisms(int cpus) {
+		List<Integer> list = Lists.newArrayList();
+		for (int p = 1; p < cpus; p <<= 1) {
+			list.add(p);
+		}
+		list.add(cpus);
+		return list;
+	}
+
+	/**
+	 * ÷ForkJoinSpeedup [pi|sum|integrator|all] [ظ] [ֵ,ֵ...]
+	 */
+	public static void main(String[] args) {
+		String which = args.length > 0 ? args[0] : "all";
+		int repeat = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		int[] thresholds = args.length > 2 ? parseInts(args[2]) : null;
+
+		List<Kernel> kernels = Lists.newArrayList();
+		boolean all = "all".equals(which);
+		if (all || "pi".equals(which)) {
+			kernels.add(new PIKernel());
+		}
+		if (all || "sum".equals(which)) {
+			kernels.add(new SumKernel());
+		}
+		if (all || "integrator".equals(which)) {
+			kernels.add(new IntegratorKernel());
+		}
+
+		int cpus = Runtime.getRuntime().availableProcessors();
+		System.out.println("processors: " + cpus);
+		for (Kernel kernel : kernels) {
+			run(kernel, cpus, repeat, thresholds != null ? thresholds : kernel.thresholds());
+		}
+	}
+
+	static void run(final Kernel kernel, int cpus, int repeat, int[] thresholds) {
+		final double[] result = new double[1];
+		long serial = best(repeat, new Runnable() {
+
+			public void run() {
+				result[0] = kernel.serial();
+			}
+		});
+		double expected = result[0];
+
+		System.out.println();
+		System.out.println(kernel.name() + ", serial " + millis(serial) + " ms, result " + expected);
+		System.out.println(String.format("%-12s%-12s%12s%10s%12s%14s", "parallelism", "threshold", "ms", "speedup", "efficiency", "error"));
+
+		for (final int p : parallelisms(cpus)) {
+			final ForkJoinPool pool = new ForkJoinPool(p);
+			try {
+				for (final int threshold : thresholds) {
+					long used = best(repeat, new Runnable() {
+
+						public void run() {
+							result[0] = kernel.parallel(pool, threshold);
+						}
+					});
+					double speedup = (double) serial / used;
+					System.out.println(String.format("%-12d%-12d%12s%10.2f%11.0f%%%14.3g", p, threshold, millis(used), speedup,
+							speedup / p * 100, Math.abs(result[0] - expected)));
+				}
+			} finally {
+				pool.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * ԤȺrepeatΣһε
+	 */
+	static long best(int repeat, Runnable job) {
+		for (int i = 0; i < WARMUP; i++) {
+			job.run();
+		}
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < Math.max(1, repeat); i++) {
+			long start = System.nanoTime();
+			job.run();
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best;
+	}
+
+	static String millis(long nanos) {
+		return String.format("%.1f", nanos / 1e6);
+	}
+
+	static int[] parseInts(String csv) {
+		String[] parts = csv.split(",");
+		int[] values = new int[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			values[i] = Integer.parseInt(parts[i].trim());
+		}
+		return values;
+	}
+}
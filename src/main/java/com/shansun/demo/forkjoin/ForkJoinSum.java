@@ -0,0 +1,90 @@
+package com.shansun.demo.forkjoin;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * {@link Sum}ForkJoinPool汾ͬTASK_COUNT"0ۼӵShort.MAX_VALUE*4"һһ
+ * Ƿ䳬ֵͶ԰
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class ForkJoinSum {
+
+	public static final int		TASK_COUNT			= 300000;
+
+	/** ÿҶٷ */
+	public static final int		DEFAULT_THRESHOLD	= 64;
+
+	static final int			UNIT				= Short.MAX_VALUE * 4;
+
+	static class SumTask extends RecursiveTask<Long> {
+
+		private static final long	serialVersionUID	= 1L;
+
+		final int					from;
+		final int					to;
+		final int					threshold;
+
+		SumTask(int from, int to, int threshold) {
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+		}
+
+		@Override
+		protected Long compute() {
+			if (to - from <= threshold) {
+				return sum(from, to);
+			}
+			int mid = (from + to) >>> 1;
+			SumTask left = new SumTask(from, mid, threshold);
+			left.fork();
+			long right = new SumTask(mid, to, threshold).compute();
+			return left.join() + right;
+		}
+	}
+
+	/**
+	 * [from, to)֮
+	 */
+	static long sum(int from, int to) {
+		long sum = 0;
+		for (int j = from; j < to; j++) {
+			for (int i = 0; i < UNIT; i++) {
+				sum += i;
+			}
+		}
+		return sum;
+	}
+
+	public static long serial(int units) {
+		return sum(0, units);
+	}
+
+	public static long parallel(ForkJoinPool pool, int units, int threshold) {
+		return pool.invoke(new SumTask(0, units, Math.max(1, threshold)));
+	}
+
+	/**
+	 * ÷ForkJoinSum [] [ֵ]
+	 */
+	public static void main(String[] args) {
+		int units = args.length > 0 ? Integer.parseInt(args[0]) : TASK_COUNT;
+		int threshold = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_THRESHOLD;
+
+		ForkJoinPool pool = new ForkJoinPool();
+
+		long start = System.currentTimeMillis();
+		System.out.println(parallel(pool, units, threshold));
+		System.err.println("Parallel Used " + (System.currentTimeMillis() - start) + " ms");
+
+		start = System.currentTimeMillis();
+		System.out.println(serial(units));
+		System.err.println("Common Used " + (System.currentTimeMillis() - start) + " ms");
+
+		pool.shutdown();
+	}
+}
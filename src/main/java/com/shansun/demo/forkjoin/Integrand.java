@@ -0,0 +1,19 @@
+package com.shansun.demo.forkjoin;
+
+/**
+ * ֵ{@link Integrator}ÿδһ꣬ҪѺֵдy
+ * <p>
+ * ʵдûз֧ûеõֱѭ(y[i] = g(x[i]))JITܰ
+ * õMath.sin֮ĵʱҲãֻǲ
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public interface Integrand {
+
+	/**
+	 * x[0, n)ֵдy[0, n)
+	 */
+	void evaluate(double[] x, double[] y, int n);
+}
@@ -0,0 +1,153 @@
+package com.shansun.demo.forkjoin;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ForkJoinPool϶{@link Integrand}е֣longϰڲ
+ * <p>
+ * ӦģСҶӣұ̶߳︻񲻳{@link #SURPLUS}ʱż԰
+ * ̶߳ͲϸæԼ㣬ðֵ
+ * <p>
+ * Ҷ{@link #BLOCK}һ飺꣬ñѭǴ㣬JIT
+ * 4·ۼ(ϼӷ)KahanۼӵĺϲʱҲŲ
+ * ʮڲȻ1e-15
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class Integrator {
+
+	/** ÿĲx/y干16KBŵýL1 */
+	static final int			BLOCK				= 1024;
+
+	/** ̶߳иֵʱ */
+	static final int			SURPLUS				= 3;
+
+	public static final long	DEFAULT_MIN_LEAF	= 16L * BLOCK;
+
+	private final ForkJoinPool	pool;
+	private final long			minLeaf;
+
+	public Integrator(ForkJoinPool pool) {
+		this(pool, DEFAULT_MIN_LEAF);
+	}
+
+	/**
+	 * @param minLeaf ҶٲӦֲ²
+	 */
+	public Integrator(ForkJoinPool pool, long minLeaf) {
+		this.pool = pool;
+		this.minLeaf = Math.max(BLOCK, minLeaf);
+	}
+
+	/**
+	 * f[a, b]ϵĻ֣steps
+	 */
+	public double integrate(Integrand f, double a, double b, long steps) {
+		if (steps <= 0) {
+			throw new IllegalArgumentException("steps must be positive: " + steps);
+		}
+		double h = (b - a) / steps;
+		KahanSum sum = pool.invoke(new IntegrateTask(f, a, h, 0, steps, minLeaf));
+		return h * sum.value();
+	}
+
+	/**
+	 * ĺͣNeumaierдȺʹʱҲ
+	 */
+	static final class KahanSum {
+
+		double	sum;
+		double	c;
+
+		void add(double v) {
+			double t = sum + v;
+			if (Math.abs(sum) >= Math.abs(v)) {
+				c += (sum - t) + v;
+			} else {
+				c += (v - t) + sum;
+			}
+			sum = t;
+		}
+
+		void add(KahanSum other) {
+			add(other.sum);
+			c += other.c;
+		}
+
+		double value() {
+			return sum + c;
+		}
+	}
+
+	static class IntegrateTask extends RecursiveTask<KahanSum> {
+
+		private static final long	serialVersionUID	= 1L;
+
+		final Integrand				f;
+		final double				a;
+		final double				h;
+		final long					from;
+		final long					to;
+		final long					minLeaf;
+
+		IntegrateTask(Integrand f, double a, double h, long from, long to, long minLeaf) {
+			this.f = f;
+			this.a = a;
+			this.h = h;
+			this.from = from;
+			this.to = to;
+			this.minLeaf = minLeaf;
+		}
+
+		@Override
+		protected KahanSum compute() {
+			if (to - from > minLeaf && getSurplusQueuedTaskCount() <= SURPLUS) {
+				long mid = (from + to) >>> 1;
+				IntegrateTask left = new IntegrateTask(f, a, h, from, mid, minLeaf);
+				left.fork();
+				KahanSum sum = new IntegrateTask(f, a, h, mid, to, minLeaf).compute();
+				sum.add(left.join());
+				return sum;
+			}
+			return leaf();
+		}
+
+		private KahanSum leaf() {
+			KahanSum sum = new KahanSum();
+			double[] x = new double[BLOCK];
+			double[] y = new double[BLOCK];
+			for (long start = from; start < to; start += BLOCK) {
+				int n = (int) Math.min(BLOCK, to - start);
+				// iеa + (i + 0.5) * hi2^52ʱ(i + 0.5)Ǿȷ
+				double offset = start + 0.5;
+				for (int i = 0; i < n; i++) {
+					x[i] = a + (offset + i) * h;
+				}
+				f.evaluate(x, y, n);
+				sum.add(blockSum(y, n));
+			}
+			return sum;
+		}
+	}
+
+	/**
+	 * 4·ۼӣֻ1024͵Ժ
+	 */
+	static double blockSum(double[] y, int n) {
+		double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+		int i = 0;
+		for (; i + 3 < n; i += 4) {
+			s0 += y[i];
+			s1 += y[i + 1];
+			s2 += y[i + 2];
+			s3 += y[i + 3];
+		}
+		for (; i < n; i++) {
+			s0 += y[i];
+		}
+		return (s0 + s1) + (s2 + s3);
+	}
+}
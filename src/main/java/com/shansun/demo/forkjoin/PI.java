@@ -1,10 +1,10 @@
 package com.shansun.demo.forkjoin;
 
-import EDU.oswego.cs.dl.util.concurrent.FJTask;
-import EDU.oswego.cs.dl.util.concurrent.FJTaskRunnerGroup;
+import java.util.concurrent.ForkJoinPool;
 
 /**
- * ʹfork-joinʽPIֵ
+ * ʹfork-joinʽPIֵ4/(1+x^2)[0,1]ϵĻ֣{@link Integrator}㡣
+ * ԭFJTaskд{@link FJTaskPI}
  * 
  * @author: lanbo <br>
  * @version: 1.0 <br>
@@ -12,63 +12,43 @@ import EDU.oswego.cs.dl.util.concurrent.FJTaskRunnerGroup;
  */
 public class PI {
 
-	static int		numSteps	= 100;
-	static double	step;
-	static double	sum			= 0.0;
-	static int		partStep;
+	public static final long		DEFAULT_STEPS	= 1000000000L;
 
-	static class PITask extends FJTask {
-		int		i	= 0;
-		double	sum	= 0.0;
+	/** 4/(1+x^2)ֱѭ */
+	public static final Integrand	FUNCTION		= new Integrand() {
 
-		public PITask(int i) {
-			this.i = i;
+		public void evaluate(double[] x, double[] y, int n) {
+			for (int i = 0; i < n; i++) {
+				y[i] = 4.0 / (1.0 + x[i] * x[i]);
+			}
 		}
+	};
 
-		@Override
-		public void run() {
-			System.out.println("Current Thread: " + Thread.currentThread().getName());
-			
-			double x = (i + 0.5) * step;
-			sum += 4.0 / (1.0 + x * x);
-		}
+	public static double compute(ForkJoinPool pool, long steps) {
+		return new Integrator(pool).integrate(FUNCTION, 0.0, 1.0, steps);
 	}
 
+	/**
+	 * ÷PI []
+	 */
 	public static void main(String[] args) {
-		double pi;
-		step = 1.0 / (double) numSteps;
-		
-		try {
-			int processors = Runtime.getRuntime().availableProcessors();
-			
-			System.err.println("I have " + processors + " processors here!");
-			
-			FJTaskRunnerGroup g = new FJTaskRunnerGroup(processors);
-			
-			long start = System.nanoTime();
-			
-			PITask[] tasks = new PITask[numSteps];
-			
-			for(int i = 0; i < numSteps; i++) {
-				tasks[i] = new PITask(i);
-			}
-			
-			g.invoke(new FJTask.Par(tasks));
-			
-			for(int i = 0; i < numSteps; i++) {
-				sum += tasks[i].sum;
-			}
-			
-			pi = step * sum;
-			
-			System.out.println(pi);
-			
-			System.out.println(Math.PI);
-			
-			System.err.println("Used " + (System.nanoTime() - start));
-		} catch (Exception e) {
-			e.printStackTrace();
-		}
+		long steps = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_STEPS;
+
+		ForkJoinPool pool = new ForkJoinPool();
+
+		System.err.println("I have " + pool.getParallelism() + " processors here!");
+
+		long start = System.nanoTime();
+
+		double pi = compute(pool, steps);
+
+		System.out.println(pi);
+
+		System.out.println(Math.PI);
+
+		System.err.println("Used " + (System.nanoTime() - start) / 1000000 + " ms, error " + Math.abs(pi - Math.PI));
+
+		pool.shutdown();
 	}
 
 }
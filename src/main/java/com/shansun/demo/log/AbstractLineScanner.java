@@ -0,0 +1,531 @@
+package com.shansun.demo.log;
+
+import java.util.regex.Pattern;
+
+/**
+ * Ԥ/־ɨĹ߼ııʾ(Stringgb2312ֽ)޹
+ * <p>
+ * ùؼжǷƥ䣬һͱų״ֱӰƫȡֶΣ
+ * ķȫһ£ò׼(ײʱ䡢ؼֳֶε)ཻ
+ * Ӧͬ
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public abstract class AbstractLineScanner {
+
+	public static final String	BATCH_WITHHOLD_REGEX	= "(\\d{4}-\\d{2}-\\d{1,2}) (\\d{1,2}:\\d{1,2}:\\d{1,2}) (.*? - .*WithholdInventory-Batch.*?,.*,)(\\d{1,5})ms\\] orderid=(\\d*) \\[(T|F->.*)\\] ,Not-Enough";
+	public static final String	SINGLE_WITHHOLD_REGEX	= "(\\d{4}-\\d{2}-\\d{1,2}) (\\d{1,2}:\\d{1,2}:\\d{1,2}) (.*? - .*WithholdInventory-Single.*?,.*,)(\\d{1,5})ms\\] suborderid=(\\d*),quantity=(\\d*),AfterPayment=(true|false),item=(\\d*) \\[(T|F->.*)\\] (.*),Not-Enough";
+	public static final String	REDUCE_REGEX			= "(\\d{4}-\\d{2}-\\d{1,2}) (\\d{1,2}:\\d{1,2}:\\d{1,2}) (.*? - Final-reduce~IA .*?,tc,)(\\d{1,5})ms\\] orderid=(\\d*) user_id=(\\d*) order_sub_ids=(\\d*)/ \\[(T|F->.*)\\]";
+	public static final String	WITHHOLD_REGEX			= "(\\d{4}-\\d{2}-\\d{1,2}) (\\d{1,2}:\\d{1,2}:\\d{1,2}) (.*? - P1-WithholdInventory-Batch .*?,tc-alipay,)(\\d{1,5})ms\\] orderid=(\\d*) \\[(T|F->.*)\\] ,(Enough|Not-Enough)";
+
+	public static final Pattern	BATCH_WITHHOLD			= Pattern.compile(BATCH_WITHHOLD_REGEX);
+	public static final Pattern	SINGLE_WITHHOLD			= Pattern.compile(SINGLE_WITHHOLD_REGEX);
+	public static final Pattern	REDUCE					= Pattern.compile(REDUCE_REGEX);
+	public static final Pattern	WITHHOLD				= Pattern.compile(WITHHOLD_REGEX);
+
+	private static final String	BATCH_MARKER			= "WithholdInventory-Batch";
+	private static final String	SINGLE_MARKER			= "WithholdInventory-Single";
+	private static final String	REDUCE_MARKER			= " - Final-reduce~IA ";
+	private static final String	WITHHOLD_MARKER			= " - P1-WithholdInventory-Batch ";
+	private static final String	DASH					= " - ";
+	private static final String	ORDER_ANCHOR			= "ms] orderid=";
+	private static final String	SUB_ORDER_ANCHOR		= "ms] suborderid=";
+	private static final String	NOT_ENOUGH				= ",Not-Enough";
+
+	static final int			NO_MATCH				= 0;
+	static final int			MATCH					= 1;
+	static final int			FALLBACK				= -1;
+
+	static final int			MAX_GROUPS				= 11;
+
+	final int[]					start					= new int[MAX_GROUPS];
+	final int[]					end						= new int[MAX_GROUPS];
+
+	long						fallbacks;
+
+	/** ȡֵδƥ䷵null */
+	public abstract String group(int group);
+
+	/**
+	 * ǹ淶ʮ(ǰ0maxDigitsλ)ʱֵ򷵻-1
+	 * ÷{@link #group(int)}ȡԭ
+	 */
+	public long number(int group, int maxDigits) {
+		int s = start[group], e = end[group];
+		if (s < 0 || e == s || e - s > maxDigits || (e - s > 1 && charAt(s) == '0')) {
+			return -1;
+		}
+		long v = 0;
+		for (int i = s; i < e; i++) {
+			int c = charAt(i);
+			if (!isDigit(c)) {
+				return -1;
+			}
+			v = v * 10 + (c - '0');
+		}
+		return v;
+	}
+
+	/**
+	 * ϸHH:mm:ssʱص򷵻-1
+	 */
+	public int time(int group) {
+		int s = start[group];
+		if (s < 0 || end[group] - s != 8 || charAt(s + 2) != ':' || charAt(s + 5) != ':') {
+			return -1;
+		}
+		int h = twoDigits(charAt(s), charAt(s + 1));
+		int m = twoDigits(charAt(s + 3), charAt(s + 4));
+		int sec = twoDigits(charAt(s + 6), charAt(s + 7));
+		if (h < 0 || h > 23 || m < 0 || m > 59 || sec < 0 || sec > 59) {
+			return -1;
+		}
+		return h * 3600 + m * 60 + sec;
+	}
+
+	/**
+	 * yyyy-MM-d(d)ʱ1970-01-01򷵻-1
+	 */
+	public int day(int group) {
+		int s = start[group], e = end[group];
+		if (s < 0 || e - s < 9 || e - s > 10 || charAt(s + 4) != '-' || charAt(s + 7) != '-') {
+			return -1;
+		}
+		int y = twoDigits(charAt(s), charAt(s + 1)), y2 = twoDigits(charAt(s + 2), charAt(s + 3));
+		int m = twoDigits(charAt(s + 5), charAt(s + 6));
+		int d = e - s == 10 ? twoDigits(charAt(s + 8), charAt(s + 9)) : twoDigits('0', charAt(s + 8));
+		if (y < 0 || y2 < 0 || m < 1 || m > 12 || d < 1 || d > 31) {
+			return -1;
+		}
+		int days = daysFromCivil(y * 100 + y2, m, d);
+		return days < 0 ? -1 : days;
+	}
+
+	/**
+	 * ڵ1970-01-01
+	 */
+	static int daysFromCivil(int year, int month, int day) {
+		year -= month <= 2 ? 1 : 0;
+		int era = (year >= 0 ? year : year - 399) / 400;
+		int yoe = year - era * 400;
+		int doy = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+		int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+		return era * 146097 + doe - 719468;
+	}
+
+	/**
+	 * ÷3ĩβ"[ip,÷,"ĵ÷tc-alipaytmall_buy
+	 */
+	public String caller() {
+		int e = end[3] - 1;
+		if (start[3] < 0 || e < start[3]) {
+			return null;
+		}
+		int s = e;
+		while (s > start[3] && charAt(s - 1) != ',') {
+			s--;
+		}
+		return text(s, e);
+	}
+
+	/**  */
+	public long fallbacks() {
+		return fallbacks;
+	}
+
+	// ---------------------------------------------------------------------
+	// ǰеıλö
+	// ---------------------------------------------------------------------
+
+	abstract int length();
+
+	/** [from, to)ԭ */
+	abstract String text(int from, int to);
+
+	/** ASCIIַԭأַ0x7fֵ */
+	abstract int charAt(int index);
+
+	abstract int indexOf(String str, int from);
+
+	/** String.lastIndexOf(str, from)һ£ʼλòfromһγ */
+	abstract int lastIndexOf(String str, int from);
+
+	abstract boolean startsWith(String str, int at);
+
+	/** ǰк'.'ƥַ޷ɿֽжʱtrue */
+	abstract boolean unsafe();
+
+	// ---------------------------------------------------------------------
+	// ÿscanXxxֻȷһʱMATCH/NO_MATCH򷵻FALLBACK
+	// ˼·: βΨһ"ms] ..."ê㿪ͷêֻһʱβλþΨһȷ
+	// ǰ.*?/.*ֻжܷӰȡֵ
+	// ---------------------------------------------------------------------
+
+	int scanBatchWithhold() {
+		int marker = indexOf(BATCH_MARKER, 0);
+		if (marker < 0) {
+			return NO_MATCH;
+		}
+		int anchor = uniqueIndexOf(ORDER_ANCHOR);
+		if (anchor == -1) {
+			return NO_MATCH;
+		}
+		int p3 = dateTime();
+		if (anchor < 0 || p3 < 0 || unsafe()) {
+			return FALLBACK;
+		}
+
+		int q = usingStart(anchor);
+		if (q < 0 || charAt(q - 1) != ',') {
+			return NO_MATCH;
+		}
+
+		// .*? - .*WithholdInventory-Batch.*?,.*,
+		int dash = indexOf(DASH, p3);
+		if (dash < 0) {
+			return NO_MATCH;
+		}
+		int m = indexOf(BATCH_MARKER, dash + DASH.length());
+		if (m < 0) {
+			return NO_MATCH;
+		}
+		int c1 = indexOf(",", m + BATCH_MARKER.length());
+		if (c1 < 0 || c1 >= q - 1) {
+			return NO_MATCH;
+		}
+
+		// orderid=(\d*) \[
+		int p = anchor + ORDER_ANCHOR.length();
+		int d = digits(p);
+		if (!startsWith(" [", d)) {
+			return NO_MATCH;
+		}
+		set(3, p3, q);
+		set(4, q, anchor);
+		set(5, p, d);
+
+		// (T|F->.*)\] ,Not-Enough
+		int s6 = d + 2;
+		if (startsWith("T] ,Not-Enough", s6)) {
+			set(6, s6, s6 + 1);
+			return MATCH;
+		}
+		if (!startsWith("F->", s6)) {
+			return NO_MATCH;
+		}
+		int e6 = lastIndexOf("] ,Not-Enough", length());
+		if (e6 < s6 + 3) {
+			return NO_MATCH;
+		}
+		set(6, s6, e6);
+		return MATCH;
+	}
+
+	int scanSingleWithhold() {
+		int marker = indexOf(SINGLE_MARKER, 0);
+		if (marker < 0) {
+			return NO_MATCH;
+		}
+		int anchor = uniqueIndexOf(SUB_ORDER_ANCHOR);
+		if (anchor == -1) {
+			return NO_MATCH;
+		}
+		int p3 = dateTime();
+		if (anchor < 0 || p3 < 0 || unsafe()) {
+			return FALLBACK;
+		}
+
+		int q = usingStart(anchor);
+		if (q < 0 || charAt(q - 1) != ',') {
+			return NO_MATCH;
+		}
+
+		// .*? - .*WithholdInventory-Single.*?,.*,
+		int dash = indexOf(DASH, p3);
+		if (dash < 0) {
+			return NO_MATCH;
+		}
+		int m = indexOf(SINGLE_MARKER, dash + DASH.length());
+		if (m < 0) {
+			return NO_MATCH;
+		}
+		int c1 = indexOf(",", m + SINGLE_MARKER.length());
+		if (c1 < 0 || c1 >= q - 1) {
+			return NO_MATCH;
+		}
+
+		// suborderid=(\d*),quantity=(\d*),AfterPayment=(true|false),item=(\d*) \[
+		int p5 = anchor + SUB_ORDER_ANCHOR.length();
+		int e5 = digits(p5);
+		if (!startsWith(",quantity=", e5)) {
+			return NO_MATCH;
+		}
+		int p6 = e5 + ",quantity=".length();
+		int e6 = digits(p6);
+		if (!startsWith(",AfterPayment=", e6)) {
+			return NO_MATCH;
+		}
+		int p7 = e6 + ",AfterPayment=".length();
+		int e7;
+		if (startsWith("true", p7)) {
+			e7 = p7 + 4;
+		} else if (startsWith("false", p7)) {
+			e7 = p7 + 5;
+		} else {
+			return NO_MATCH;
+		}
+		if (!startsWith(",item=", e7)) {
+			return NO_MATCH;
+		}
+		int p8 = e7 + ",item=".length();
+		int e8 = digits(p8);
+		if (!startsWith(" [", e8)) {
+			return NO_MATCH;
+		}
+
+		// (T|F->.*)\] (.*),Not-Enough
+		int s9 = e8 + 2;
+		int last = lastIndexOf(NOT_ENOUGH, length());
+		int e9;
+		if (startsWith("T] ", s9)) {
+			if (last < s9 + 3) {
+				return NO_MATCH;
+			}
+			e9 = s9 + 1;
+		} else if (startsWith("F->", s9)) {
+			if (last < 0) {
+				return NO_MATCH;
+			}
+			e9 = lastIndexOf("] ", last - 2);
+			if (e9 < s9 + 3) {
+				return NO_MATCH;
+			}
+		} else {
+			return NO_MATCH;
+		}
+
+		set(3, p3, q);
+		set(4, q, anchor);
+		set(5, p5, e5);
+		set(6, p6, e6);
+		set(7, p7, e7);
+		set(8, p8, e8);
+		set(9, s9, e9);
+		set(10, e9 + 2, last);
+		return MATCH;
+	}
+
+	int scanReduce() {
+		int marker = indexOf(REDUCE_MARKER, 0);
+		if (marker < 0) {
+			return NO_MATCH;
+		}
+		int anchor = uniqueIndexOf(ORDER_ANCHOR);
+		if (anchor == -1) {
+			return NO_MATCH;
+		}
+		int p3 = dateTime();
+		if (anchor < 0 || p3 < 0 || unsafe()) {
+			return FALLBACK;
+		}
+
+		int q = usingStart(anchor);
+		if (q < 0 || !startsWith(",tc,", q - 4)) {
+			return NO_MATCH;
+		}
+
+		// .*? - Final-reduce~IA .*?,tc,
+		int m = indexOf(REDUCE_MARKER, p3);
+		if (m < 0 || m + REDUCE_MARKER.length() > q - 4) {
+			return NO_MATCH;
+		}
+
+		// orderid=(\d*) user_id=(\d*) order_sub_ids=(\d*)/ \[
+		int p5 = anchor + ORDER_ANCHOR.length();
+		int e5 = digits(p5);
+		if (!startsWith(" user_id=", e5)) {
+			return NO_MATCH;
+		}
+		int p6 = e5 + " user_id=".length();
+		int e6 = digits(p6);
+		if (!startsWith(" order_sub_ids=", e6)) {
+			return NO_MATCH;
+		}
+		int p7 = e6 + " order_sub_ids=".length();
+		int e7 = digits(p7);
+		if (!startsWith("/ [", e7)) {
+			return NO_MATCH;
+		}
+
+		// (T|F->.*)\]
+		int s8 = e7 + 3;
+		int e8;
+		if (startsWith("T]", s8)) {
+			e8 = s8 + 1;
+		} else if (startsWith("F->", s8)) {
+			e8 = lastIndexOf("]", length());
+			if (e8 < s8 + 3) {
+				return NO_MATCH;
+			}
+		} else {
+			return NO_MATCH;
+		}
+
+		set(3, p3, q);
+		set(4, q, anchor);
+		set(5, p5, e5);
+		set(6, p6, e6);
+		set(7, p7, e7);
+		set(8, s8, e8);
+		return MATCH;
+	}
+
+	int scanWithhold() {
+		int marker = indexOf(WITHHOLD_MARKER, 0);
+		if (marker < 0) {
+			return NO_MATCH;
+		}
+		int anchor = uniqueIndexOf(ORDER_ANCHOR);
+		if (anchor == -1) {
+			return NO_MATCH;
+		}
+		int p3 = dateTime();
+		if (anchor < 0 || p3 < 0 || unsafe()) {
+			return FALLBACK;
+		}
+
+		int q = usingStart(anchor);
+		if (q < 0 || !startsWith(",tc-alipay,", q - 11)) {
+			return NO_MATCH;
+		}
+
+		// .*? - P1-WithholdInventory-Batch .*?,tc-alipay,
+		int m = indexOf(WITHHOLD_MARKER, p3);
+		if (m < 0 || m + WITHHOLD_MARKER.length() > q - 11) {
+			return NO_MATCH;
+		}
+
+		// orderid=(\d*) \[
+		int p5 = anchor + ORDER_ANCHOR.length();
+		int e5 = digits(p5);
+		if (!startsWith(" [", e5)) {
+			return NO_MATCH;
+		}
+
+		// (T|F->.*)\] ,(Enough|Not-Enough)
+		int s6 = e5 + 2;
+		int e6 = -1;
+		if (startsWith("T] ,", s6) && enough(s6 + 4) > 0) {
+			e6 = s6 + 1;
+		} else if (startsWith("F->", s6)) {
+			int r = lastIndexOf("] ,", length());
+			while (r >= s6 + 3 && enough(r + 3) < 0) {
+				r = lastIndexOf("] ,", r - 1);
+			}
+			if (r >= s6 + 3) {
+				e6 = r;
+			}
+		}
+		if (e6 < 0) {
+			return NO_MATCH;
+		}
+
+		set(3, p3, q);
+		set(4, q, anchor);
+		set(5, p5, e5);
+		set(6, s6, e6);
+		set(7, e6 + 3, enough(e6 + 3));
+		return MATCH;
+	}
+
+	// ---------------------------------------------------------------------
+
+	void set(int group, int from, int to) {
+		start[group] = from;
+		end[group] = to;
+	}
+
+	/**
+	 * ׵"\d{4}-\d{2}-\d{1,2} \d{1,2}:\d{1,2}:\d{1,2} "÷12λãϷ-1
+	 */
+	private int dateTime() {
+		int len = length();
+		int p = 0;
+		if (len < 16 || digits(0) != 4 || charAt(4) != '-' || digits(5) != 7 || charAt(7) != '-') {
+			return -1;
+		}
+		p = digits(8);
+		if (p - 8 < 1 || p - 8 > 2 || p >= len || charAt(p) != ' ') {
+			return -1;
+		}
+		set(1, 0, p);
+
+		int t = p + 1;
+		p = t;
+		for (int i = 0; i < 3; i++) {
+			int e = digits(p);
+			if (e - p < 1 || e - p > 2 || e >= len) {
+				return -1;
+			}
+			if (charAt(e) != (i < 2 ? ':' : ' ')) {
+				return -1;
+			}
+			p = e + 1;
+		}
+		set(2, t, p - 1);
+		return p;
+	}
+
+	/**
+	 * anchor֮ǰ1~5λֵʼλãϷ-1
+	 */
+	private int usingStart(int anchor) {
+		int q = anchor;
+		while (q > 0 && isDigit(charAt(q - 1))) {
+			q--;
+		}
+		int n = anchor - q;
+		return n < 1 || n > 5 || q == 0 ? -1 : q;
+	}
+
+	/**
+	 * ֻһʱλãûз-1η-2
+	 */
+	private int uniqueIndexOf(String str) {
+		int i = indexOf(str, 0);
+		if (i < 0) {
+			return -1;
+		}
+		return indexOf(str, i + 1) < 0 ? i : -2;
+	}
+
+	/** (Enough|Not-Enough)ؽλãƥ䷵-1 */
+	private int enough(int p) {
+		if (startsWith("Enough", p)) {
+			return p + 6;
+		}
+		if (startsWith("Not-Enough", p)) {
+			return p + 10;
+		}
+		return -1;
+	}
+
+	/** pʼֵĽλ */
+	private int digits(int p) {
+		int len = length();
+		while (p < len && isDigit(charAt(p))) {
+			p++;
+		}
+		return p;
+	}
+
+	static int twoDigits(int a, int b) {
+		return isDigit(a) && isDigit(b) ? (a - '0') * 10 + (b - '0') : -1;
+	}
+
+	private static boolean isDigit(int c) {
+		return c >= '0' && c <= '9';
+	}
+}
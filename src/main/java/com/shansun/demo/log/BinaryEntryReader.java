@@ -0,0 +1,171 @@
+package com.shansun.demo.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+/**
+ * {@link BinaryEntrySink}д.binļӳ䣬ֱֵӴӳƫƶȡ
+ * <p>
+ * ÷{@code while (reader.next()) { for (row < reader.rows()) ... }}̰߳ȫ
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class BinaryEntryReader {
+
+	private final RandomAccessFile		file;
+	private final FileChannel			channel;
+
+	private final byte					type;
+	private final List<String>			names	= Lists.newArrayList();
+	private final byte[]				kinds;
+
+	/** һʼλãļͷ */
+	private final long					dataOffset;
+	/** һʼλ */
+	private long						position;
+
+	private MappedByteBuffer			block;
+	private int							rows;
+	private String[]					strings	= new String[0];
+	private final int[]					offsets;
+
+	public BinaryEntryReader(File path) throws IOException {
+		file = new RandomAccessFile(path, "r");
+		channel = file.getChannel();
+
+		ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), 8 + 255 * 256));
+		if (header.remaining() < 8 || header.getInt() != BinaryEntrySink.MAGIC) {
+			close();
+			throw new IOException(path + " is not a binary entry file");
+		}
+		short version = header.getShort();
+		if (version != BinaryEntrySink.VERSION) {
+			close();
+			throw new IOException(path + ": unsupported version " + version);
+		}
+		type = header.get();
+		kinds = new byte[header.get() & 0xff];
+		offsets = new int[kinds.length];
+		for (int c = 0; c < kinds.length; c++) {
+			kinds[c] = header.get();
+			byte[] name = new byte[header.getShort()];
+			header.get(name);
+			names.add(new String(name, "UTF-8"));
+		}
+		dataOffset = position = header.position();
+	}
+
+	public byte type() {
+		return type;
+	}
+
+	public List<String> columns() {
+		return names;
+	}
+
+	public byte kind(int column) {
+		return kinds[column];
+	}
+
+	public long dataOffset() {
+		return dataOffset;
+	}
+
+	/**
+	 * ӳһ飬û˷falseļĩβдһĿҲû
+	 */
+	public boolean next() throws IOException {
+		long size = channel.size();
+		if (position + 4 > size) {
+			return false;
+		}
+		ByteBuffer length = ByteBuffer.allocate(4);
+		channel.read(length, position);
+		length.flip();
+		int len = length.getInt();
+		if (position + 4 + len > size) {
+			return false;
+		}
+
+		block = channel.map(FileChannel.MapMode.READ_ONLY, position + 4, len);
+		position += 4 + len;
+
+		rows = block.getInt();
+		int count = block.getInt();
+		if (strings.length < count) {
+			strings = new String[count];
+		}
+		for (int i = 0; i < count; i++) {
+			byte[] bytes = new byte[block.getShort()];
+			block.get(bytes);
+			strings[i] = new String(bytes, "UTF-8");
+		}
+		int offset = block.position();
+		for (int c = 0; c < kinds.length; c++) {
+			offsets[c] = offset;
+			offset += (kinds[c] == EntrySchema.LONG ? 8 : 4) * rows;
+		}
+		return true;
+	}
+
+	public int rows() {
+		return rows;
+	}
+
+	/** ԭʼֵͬ{@link EntryTable#longValue(int, int)}ַָ */
+	public long longValue(int column, int row) {
+		return block.getLong(offsets[column] + 8 * row);
+	}
+
+	public int intValue(int column, int row) {
+		return block.getInt(offsets[column] + 4 * row);
+	}
+
+	/**
+	 * ȡıֵnull
+	 */
+	public String get(int column, int row) {
+		switch (kinds[column]) {
+		case EntrySchema.LONG: {
+			long v = longValue(column, row);
+			if (v == EntryTable.NULL) {
+				return null;
+			}
+			return v >= 0 ? Long.toString(v) : strings[(int) (-v - 1)];
+		}
+		case EntrySchema.INT:
+		case EntrySchema.TIME: {
+			int v = intValue(column, row);
+			if (v == EntryTable.NULL_INT) {
+				return null;
+			}
+			if (v < 0) {
+				return strings[-v - 1];
+			}
+			if (kinds[column] == EntrySchema.INT) {
+				return Integer.toString(v);
+			}
+			return String.format("%02d:%02d:%02d", v / 3600, v / 60 % 60, v % 60);
+		}
+		default: {
+			int v = intValue(column, row);
+			return v == EntryTable.NULL_INT ? null : strings[v];
+		}
+		}
+	}
+
+	public void close() throws IOException {
+		block = null;
+		channel.close();
+		file.close();
+	}
+}
@@ -0,0 +1,323 @@
+package com.shansun.demo.log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.shansun.demo.tool.FileConcat;
+
+/**
+ * յĶʽÿ¼һ&lt;file&gt;.binֱmmapȡ{@link BinaryEntryReader}
+ * <p>
+ * ʽ()
+ * <pre>
+ * ļͷ  int MAGIC, short VERSION, byte , byte , ÿ byte 洢ʽ + short  + UTF-8
+ * ݿ  int 鳤(4ֽ), int ,
+ *         int ַ, ÿ short  + UTF-8,
+ *         ΣLONG long[] int[]
+ * </pre>
+ * ַֻڿЧÿԵ룬ģʽҲֱӽ׷ӡ
+ * LONG/INT/TIMEзǸΪֵ{@link EntryTable#NULL}/{@link EntryTable#NULL_INT}Ϊգ
+ * ฺ-(n+1)ָڵnַ(ǹ淶дԭ)TEXT/REASONΪַ±꣬NULL_INTΪա
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class BinaryEntrySink implements EntrySink {
+
+	public static final int		MAGIC	= 0x4C4F4743;	// "LOGC"
+	public static final short	VERSION	= 1;
+
+	private final String		base;
+	private final boolean		append;
+
+	private final Encoder[]		encoders	= new Encoder[EntryTable.FULL_WITHHOLD + 1];
+
+	/** ͷֺõкţ */
+	private int[][]				rows		= new int[EntryTable.FULL_WITHHOLD + 1][];
+	private final int[]			counts		= new int[EntryTable.FULL_WITHHOLD + 1];
+
+	private long				written		= 0;
+
+	public BinaryEntrySink(String base, boolean append) {
+		this.base = base;
+		this.append = append;
+	}
+
+	@Override
+	public void write(EntryTable table) throws IOException {
+		int size = table.size();
+		for (int type = 0; type < counts.length; type++) {
+			counts[type] = 0;
+			if (rows[type] == null || rows[type].length < size) {
+				rows[type] = new int[Math.max(size, 16)];
+			}
+		}
+		for (int row = 0; row < size; row++) {
+			byte type = table.type(row);
+			if (EntrySchema.of(type) != null) {
+				rows[type][counts[type]++] = row;
+			}
+		}
+		for (byte type = EntryTable.REDUCE; type <= EntryTable.FULL_WITHHOLD; type++) {
+			if (counts[type] > 0) {
+				encoder(type).write(table, rows[type], counts[type]);
+			}
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		// ÿ鶼ֱдͨûл
+	}
+
+	@Override
+	public long bytesWritten() {
+		return written;
+	}
+
+	@Override
+	public void close() throws IOException {
+		for (int i = 0; i < encoders.length; i++) {
+			if (encoders[i] != null) {
+				encoders[i].channel.close();
+				encoders[i] = null;
+			}
+		}
+	}
+
+	/**
+	 * ѸƬĿ¼µͬ.binƴbase£һƬļͷֻݿ飬ƴɾƬļ
+	 */
+	public static void merge(String base, List<String> shards) throws IOException {
+		for (EntrySchema schema : EntrySchema.all()) {
+			FileOutputStream out = null;
+			try {
+				for (String shard : shards) {
+					File part = new File(shard + schema.file + ".bin");
+					if (!part.exists()) {
+						continue;
+					}
+					long from = 0;
+					if (out == null) {
+						out = new FileOutputStream(base + schema.file + ".bin");
+					} else {
+						BinaryEntryReader reader = new BinaryEntryReader(part);
+						from = reader.dataOffset();
+						reader.close();
+					}
+					FileConcat.transfer(part, from, out.getChannel());
+					part.delete();
+				}
+			} finally {
+				if (out != null) {
+					out.close();
+				}
+			}
+		}
+	}
+
+	private Encoder encoder(byte type) throws IOException {
+		Encoder encoder = encoders[type];
+		if (encoder == null) {
+			EntrySchema schema = EntrySchema.of(type);
+			FileChannel channel = new FileOutputStream(base + schema.file + ".bin", append).getChannel();
+			encoder = new Encoder(schema, channel, this);
+			encoders[type] = encoder;
+		}
+		return encoder;
+	}
+
+	/**
+	 * һ¼ıеʱͿַãֻһʱ
+	 */
+	static class Encoder {
+		final EntrySchema			schema;
+		final FileChannel			channel;
+		final BinaryEntrySink		sink;
+
+		ByteBuffer					buffer		= ByteBuffer.allocate(64 * 1024);
+
+		/** бֵLONGlongsintsһΪnull */
+		final long[][]				longs;
+		final int[][]				ints;
+
+		/** ȫֵ -> ±꣬generationǲǱǼǵ */
+		int[]						local		= new int[1024];
+		int[]						stamp		= new int[1024];
+		int							generation	= 0;
+
+		/** ʧԭֵݵǼ */
+		final Map<String, Integer>	reasons		= new HashMap<String, Integer>();
+
+		byte[][]					encoded		= new byte[64][];
+		int							count		= 0;
+
+		Encoder(EntrySchema schema, FileChannel channel, BinaryEntrySink sink) throws IOException {
+			this.schema = schema;
+			this.channel = channel;
+			this.sink = sink;
+			this.longs = new long[schema.columns.size()][];
+			this.ints = new int[schema.columns.size()][];
+			for (int c = 0; c < schema.columns.size(); c++) {
+				if (schema.columns.get(c).kind == EntrySchema.LONG) {
+					longs[c] = new long[0];
+				} else {
+					ints[c] = new int[0];
+				}
+			}
+			if (channel.size() == 0) {
+				writeHeader();
+			}
+		}
+
+		void writeHeader() throws IOException {
+			ByteBuffer header = ByteBuffer.allocate(8 + schema.columns.size() * 256);
+			header.putInt(MAGIC).putShort(VERSION).put(schema.type).put((byte) schema.columns.size());
+			for (EntrySchema.Column column : schema.columns) {
+				byte[] name = column.name.getBytes("UTF-8");
+				header.put(column.kind).putShort((short) name.length).put(name);
+			}
+			header.flip();
+			writeFully(header);
+		}
+
+		void write(EntryTable table, int[] rows, int n) throws IOException {
+			generation++;
+			reasons.clear();
+			count = 0;
+
+			// ȰѸб뵽ʱ˳Ǽַ
+			StringDictionary dictionary = table.dictionary();
+			for (int c = 0; c < schema.columns.size(); c++) {
+				EntrySchema.Column column = schema.columns.get(c);
+				switch (column.kind) {
+				case EntrySchema.LONG: {
+					long[] out = longs[c].length >= n ? longs[c] : (longs[c] = new long[capacity(n)]);
+					for (int i = 0; i < n; i++) {
+						long v = table.longValue(column.index, rows[i]);
+						out[i] = v >= 0 || v == EntryTable.NULL ? v : -(local(dictionary, (int) (-v - 1)) + 1);
+					}
+					break;
+				}
+				case EntrySchema.INT:
+				case EntrySchema.TIME: {
+					int index = column.kind == EntrySchema.TIME ? EntryTable.TIME : column.index;
+					int[] out = ints[c].length >= n ? ints[c] : (ints[c] = new int[capacity(n)]);
+					for (int i = 0; i < n; i++) {
+						int v = table.intValue(index, rows[i]);
+						out[i] = v >= 0 || v == EntryTable.NULL_INT ? v : -(local(dictionary, -v - 1) + 1);
+					}
+					break;
+				}
+				case EntrySchema.TEXT: {
+					int[] out = ints[c].length >= n ? ints[c] : (ints[c] = new int[capacity(n)]);
+					for (int i = 0; i < n; i++) {
+						int id = table.textId(column.index, rows[i]);
+						out[i] = id == EntryTable.NULL_INT ? id : local(dictionary, id);
+					}
+					break;
+				}
+				case EntrySchema.REASON: {
+					int[] out = ints[c].length >= n ? ints[c] : (ints[c] = new int[capacity(n)]);
+					for (int i = 0; i < n; i++) {
+						String reason = table.getReason(rows[i]);
+						out[i] = reason == null ? EntryTable.NULL_INT : reason(reason);
+					}
+					break;
+				}
+				}
+			}
+
+			int length = 4 + 4;
+			for (int i = 0; i < count; i++) {
+				length += 2 + encoded[i].length;
+			}
+			for (int c = 0; c < schema.columns.size(); c++) {
+				length += longs[c] != null ? 8 * n : 4 * n;
+			}
+
+			ByteBuffer out = buffer(4 + length);
+			out.putInt(length).putInt(n).putInt(count);
+			for (int i = 0; i < count; i++) {
+				out.putShort((short) encoded[i].length).put(encoded[i]);
+			}
+			for (int c = 0; c < schema.columns.size(); c++) {
+				if (longs[c] != null) {
+					out.asLongBuffer().put(longs[c], 0, n);
+					out.position(out.position() + 8 * n);
+				} else {
+					out.asIntBuffer().put(ints[c], 0, n);
+					out.position(out.position() + 4 * n);
+				}
+			}
+			out.flip();
+			writeFully(out);
+		}
+
+		int local(StringDictionary dictionary, int id) throws IOException {
+			if (id >= stamp.length) {
+				int capacity = Math.max(id + 1, stamp.length * 2);
+				int[] s = new int[capacity];
+				int[] l = new int[capacity];
+				System.arraycopy(stamp, 0, s, 0, stamp.length);
+				System.arraycopy(local, 0, l, 0, local.length);
+				stamp = s;
+				local = l;
+			}
+			if (stamp[id] != generation) {
+				stamp[id] = generation;
+				local[id] = register(dictionary.get(id));
+			}
+			return local[id];
+		}
+
+		int reason(String reason) throws IOException {
+			Integer i = reasons.get(reason);
+			if (i == null) {
+				i = register(reason);
+				reasons.put(reason, i);
+			}
+			return i;
+		}
+
+		int register(String value) throws IOException {
+			byte[] bytes = value.getBytes("UTF-8");
+			if (bytes.length > Short.MAX_VALUE) {
+				throw new IOException("string too long for " + schema.file + ".bin: " + bytes.length + " bytes");
+			}
+			if (count == encoded.length) {
+				byte[][] grown = new byte[count * 2][];
+				System.arraycopy(encoded, 0, grown, 0, count);
+				encoded = grown;
+			}
+			encoded[count] = bytes;
+			return count++;
+		}
+
+		/** ÿĳ¼2ȡСʱ */
+		static int capacity(int n) {
+			return Math.max(16, Integer.highestOneBit(n - 1) << 1);
+		}
+
+		ByteBuffer buffer(int capacity) {
+			if (buffer.capacity() < capacity) {
+				buffer = ByteBuffer.allocate(Math.max(capacity, buffer.capacity() * 2));
+			}
+			buffer.clear();
+			return buffer;
+		}
+
+		void writeFully(ByteBuffer data) throws IOException {
+			while (data.hasRemaining()) {
+				sink.written += channel.write(data);
+			}
+		}
+	}
+}
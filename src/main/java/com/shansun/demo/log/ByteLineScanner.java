@@ -0,0 +1,211 @@
+package com.shansun.demo.log;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * ֱgb2312ֽɨİ汾в룬ֻȡʱŰѸֶνString
+ * <p>
+ * gb2312˫ַֽֽڶ0xA1~0xFE֮䣬ASCIIؼָ֡֡
+ * ԰ֽҵλַҵλһһӦ淶ֽʱн룬
+ * {@link LogLineScanner}
+ * <p>
+ * ̰߳ȫÿ̸߳һʵ
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class ByteLineScanner extends AbstractLineScanner {
+
+	public static final Charset		GB2312		= Charset.forName("gb2312");
+
+	private final LogLineScanner	delegate;
+
+	private ByteBuffer				buffer;
+	private int						from;
+	private int						length;
+
+	/** ǰѽdelegate */
+	private boolean					delegated;
+
+	private byte[]					scratch		= new byte[256];
+
+	public ByteLineScanner() {
+		this(true);
+	}
+
+	public ByteLineScanner(boolean fastPath) {
+		this.delegate = new LogLineScanner(fastPath);
+	}
+
+	/**
+	 * õǰΪbuffer[from, to)з
+	 */
+	public ByteLineScanner reset(ByteBuffer buffer, int from, int to) {
+		this.buffer = buffer;
+		this.from = from;
+		this.length = to - from;
+		this.delegated = false;
+		return this;
+	}
+
+	public boolean batchWithhold(ByteBuffer buffer, int from, int to) {
+		reset(buffer, from, to);
+		int result = scanBatchWithhold();
+		return result == FALLBACK ? delegate().batchWithhold(decode()) : result == MATCH;
+	}
+
+	public boolean singleWithhold(ByteBuffer buffer, int from, int to) {
+		reset(buffer, from, to);
+		int result = scanSingleWithhold();
+		return result == FALLBACK ? delegate().singleWithhold(decode()) : result == MATCH;
+	}
+
+	public boolean reduce(ByteBuffer buffer, int from, int to) {
+		reset(buffer, from, to);
+		int result = scanReduce();
+		return result == FALLBACK ? delegate().reduce(decode()) : result == MATCH;
+	}
+
+	public boolean withhold(ByteBuffer buffer, int from, int to) {
+		reset(buffer, from, to);
+		int result = scanWithhold();
+		return result == FALLBACK ? delegate().withhold(decode()) : result == MATCH;
+	}
+
+	/**
+	 * ǰǷиASCII
+	 */
+	public boolean contains(String ascii) {
+		return indexOf(ascii, 0) >= 0;
+	}
+
+	/**
+	 * ѵǰнString
+	 */
+	public String decode() {
+		return decode(0, length);
+	}
+
+	@Override
+	public String group(int group) {
+		if (delegated) {
+			return delegate.group(group);
+		}
+		return start[group] < 0 ? null : decode(start[group], end[group]);
+	}
+
+	@Override
+	public long number(int group, int maxDigits) {
+		return delegated ? delegate.number(group, maxDigits) : super.number(group, maxDigits);
+	}
+
+	@Override
+	public int time(int group) {
+		return delegated ? delegate.time(group) : super.time(group);
+	}
+
+	@Override
+	public String caller() {
+		return delegated ? delegate.caller() : super.caller();
+	}
+
+	@Override
+	public long fallbacks() {
+		return fallbacks + delegate.fallbacks();
+	}
+
+	private LogLineScanner delegate() {
+		delegated = true;
+		return delegate;
+	}
+
+	private String decode(int s, int e) {
+		int len = e - s;
+		if (len > scratch.length) {
+			scratch = new byte[Math.max(len, scratch.length * 2)];
+		}
+		for (int i = 0; i < len; i++) {
+			scratch[i] = buffer.get(from + s + i);
+		}
+		return new String(scratch, 0, len, GB2312);
+	}
+
+	@Override
+	int length() {
+		return length;
+	}
+
+	@Override
+	String text(int from, int to) {
+		return decode(from, to);
+	}
+
+	@Override
+	int charAt(int index) {
+		return buffer.get(from + index) & 0xff;
+	}
+
+	@Override
+	int indexOf(String str, int fromIndex) {
+		int n = str.length();
+		byte first = (byte) str.charAt(0);
+		int max = length - n;
+		for (int i = Math.max(fromIndex, 0); i <= max; i++) {
+			if (buffer.get(from + i) == first && matches(str, i, 1)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	int lastIndexOf(String str, int fromIndex) {
+		int n = str.length();
+		byte first = (byte) str.charAt(0);
+		for (int i = Math.min(fromIndex, length - n); i >= 0; i--) {
+			if (buffer.get(from + i) == first && matches(str, i, 1)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	boolean startsWith(String str, int at) {
+		return at >= 0 && at + str.length() <= length && matches(str, at, 0);
+	}
+
+	/**
+	 * gb2312ֽ(0x80~0xA0ֵ)ȷ·
+	 */
+	@Override
+	boolean unsafe() {
+		for (int i = 0; i < length; i++) {
+			int b = buffer.get(from + i) & 0xff;
+			if (b < 0x80) {
+				if (b == '\n' || b == '\r') {
+					return true;
+				}
+			} else if (b < 0xA1 || b > 0xFE || i + 1 >= length) {
+				return true;
+			} else {
+				int t = buffer.get(from + ++i) & 0xff;
+				if (t < 0xA1 || t > 0xFE) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private boolean matches(String str, int at, int k) {
+		for (int n = str.length(); k < n; k++) {
+			if (buffer.get(from + at + k) != (byte) str.charAt(k)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,50 @@
+package com.shansun.demo.log;
+
+import java.nio.ByteBuffer;
+
+/**
+ * ֽڷУBufferedReader.readLineһ'\n''\r'"\r\n"
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class ByteLines {
+
+	/**
+	 * ֽڴһУ[from, to)з
+	 */
+	public interface Handler {
+		void format(ByteBuffer buffer, int from, int to);
+	}
+
+	public static void forEachLine(ByteBuffer buffer, Handler handler) {
+		int limit = buffer.limit();
+		int from = 0;
+		for (int i = 0; i < limit; i++) {
+			int end = lineEnd(buffer, i, limit);
+			if (end >= 0) {
+				handler.format(buffer, from, i);
+				i = end - 1;
+				from = end;
+			}
+		}
+		if (from < limit) {
+			handler.format(buffer, from, limit);
+		}
+	}
+
+	/**
+	 * iǻзʱһеʼλ("\r\n"һ)򷵻-1
+	 */
+	static int lineEnd(ByteBuffer buffer, int i, int limit) {
+		byte b = buffer.get(i);
+		if (b == '\n') {
+			return i + 1;
+		}
+		if (b == '\r') {
+			return i + 1 < limit && buffer.get(i + 1) == '\n' ? i + 2 : i + 1;
+		}
+		return -1;
+	}
+}
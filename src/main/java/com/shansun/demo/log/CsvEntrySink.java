@@ -0,0 +1,193 @@
+package com.shansun.demo.log;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import com.shansun.demo.tool.FileConcat;
+
+/**
+ * ÿ¼һgb2312CSVļһ¼ʱŴ
+ * <p>
+ * һƴõStringBuilderдֱ׷ӣתStringֵմ
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class CsvEntrySink implements EntrySink {
+
+	private final String		base;
+	private final boolean		append;
+
+	private final Writer[]		writers	= new Writer[EntryTable.FULL_WITHHOLD + 1];
+
+	private final StringBuilder	line	= new StringBuilder(256);
+
+	private long				written	= 0;
+
+	/**
+	 * @param base Ŀ¼Էָβ
+	 * @param append ļд
+	 */
+	public CsvEntrySink(String base, boolean append) {
+		this.base = base;
+		this.append = append;
+	}
+
+	@Override
+	public void write(EntryTable table) throws IOException {
+		for (int row = 0, size = table.size(); row < size; row++) {
+			EntrySchema schema = EntrySchema.of(table.type(row));
+			if (schema == null) {
+				continue;
+			}
+
+			line.setLength(0);
+			encode(table, row, schema, line);
+			line.append('\n');
+			writer(schema).append(line);
+		}
+	}
+
+	/**
+	 * schemaһбCSVз
+	 */
+	public static void encode(EntryTable table, int row, EntrySchema schema, StringBuilder out) {
+		StringDictionary dictionary = table.dictionary();
+		boolean first = true;
+		for (EntrySchema.Column column : schema.columns) {
+			if (!first) {
+				out.append(',');
+			}
+			first = false;
+
+			switch (column.kind) {
+			case EntrySchema.LONG: {
+				long v = table.longValue(column.index, row);
+				if (v >= 0) {
+					out.append(v);
+				} else if (v != EntryTable.NULL) {
+					out.append(dictionary.get((int) (-v - 1)));
+				}
+				break;
+			}
+			case EntrySchema.INT: {
+				int v = table.intValue(column.index, row);
+				if (v >= 0) {
+					out.append(v);
+				} else if (v != EntryTable.NULL_INT) {
+					out.append(dictionary.get(-v - 1));
+				}
+				break;
+			}
+			case EntrySchema.TIME: {
+				int v = table.intValue(EntryTable.TIME, row);
+				if (v >= 0) {
+					twoDigits(out, v / 3600).append(':');
+					twoDigits(out, v / 60 % 60).append(':');
+					twoDigits(out, v % 60);
+				} else if (v != EntryTable.NULL_INT) {
+					out.append(dictionary.get(-v - 1));
+				}
+				break;
+			}
+			case EntrySchema.TEXT: {
+				int id = table.textId(column.index, row);
+				if (id != EntryTable.NULL_INT) {
+					out.append(dictionary.get(id));
+				}
+				break;
+			}
+			case EntrySchema.REASON: {
+				String reason = table.getReason(row);
+				if (reason != null) {
+					out.append(reason);
+				}
+				break;
+			}
+			}
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		for (Writer writer : writers) {
+			if (writer != null) {
+				writer.flush();
+			}
+		}
+	}
+
+	@Override
+	public long bytesWritten() {
+		return written;
+	}
+
+	@Override
+	public void close() throws IOException {
+		for (int i = 0; i < writers.length; i++) {
+			if (writers[i] != null) {
+				writers[i].close();
+				writers[i] = null;
+			}
+		}
+	}
+
+	/**
+	 * ѸƬĿ¼µͬcsv˳ƴbase£ƴɾƬļ
+	 */
+	public static void merge(String base, List<String> shards) throws IOException {
+		for (EntrySchema schema : EntrySchema.all()) {
+			List<File> parts = Lists.newArrayList();
+			for (String shard : shards) {
+				File part = new File(shard + schema.file + ".csv");
+				if (part.exists()) {
+					parts.add(part);
+				}
+			}
+			if (parts.isEmpty()) {
+				continue;
+			}
+			FileConcat.concat(new File(base + schema.file + ".csv"), false, parts);
+			for (File part : parts) {
+				part.delete();
+			}
+		}
+	}
+
+	private Writer writer(EntrySchema schema) throws IOException {
+		Writer writer = writers[schema.type];
+		if (writer == null) {
+			// ڱֽ֮
+			OutputStream out = new FilterOutputStream(new FileOutputStream(base + schema.file + ".csv", append)) {
+
+				@Override
+				public void write(byte[] b, int off, int len) throws IOException {
+					out.write(b, off, len);
+					written += len;
+				}
+
+				@Override
+				public void write(int b) throws IOException {
+					out.write(b);
+					written++;
+				}
+			};
+			writer = new BufferedWriter(new OutputStreamWriter(out, "gb2312"));
+			writers[schema.type] = writer;
+		}
+		return writer;
+	}
+
+	private static StringBuilder twoDigits(StringBuilder out, int v) {
+		return out.append((char) ('0' + v / 10)).append((char) ('0' + v % 10));
+	}
+}
@@ -0,0 +1,99 @@
+package com.shansun.demo.log;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ¼ЩСʲô˳CSVͶƸʽ
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class EntrySchema {
+
+	// еĴ洢ʽӦEntryTableĸ
+	public static final byte	LONG	= 1;
+	public static final byte	INT		= 2;
+	public static final byte	TIME	= 3;
+	public static final byte	TEXT	= 4;
+	public static final byte	REASON	= 5;
+
+	public static class Column {
+		public final String	name;
+		public final byte	kind;
+		/** EntryTableͬ±꣬TIMEREASON */
+		public final int	index;
+
+		Column(String name, byte kind, int index) {
+			this.name = name;
+			this.kind = kind;
+			this.index = index;
+		}
+	}
+
+	public static final EntrySchema	REDUCE			= new EntrySchema(EntryTable.REDUCE, "reduce", "reduce",
+															column("bizId", LONG, EntryTable.BIZ_ID),
+															column("subId", LONG, EntryTable.SUB_ID),
+															column("time", TIME, EntryTable.TIME),
+															column("using", INT, EntryTable.USING),
+															column("succ", TEXT, EntryTable.SUCC));
+
+	public static final EntrySchema	WITHHOLD		= new EntrySchema(EntryTable.WITHHOLD, "withhold", "withhold",
+															column("bizId", LONG, EntryTable.BIZ_ID),
+															column("time", TIME, EntryTable.TIME),
+															column("using", INT, EntryTable.USING),
+															column("succ", TEXT, EntryTable.SUCC),
+															column("enough", TEXT, EntryTable.ENOUGH));
+
+	public static final EntrySchema	REDUCE_INFO		= new EntrySchema(EntryTable.REDUCE_INFO, "reduce-failure", "reduce-failure-2",
+															column("time", TIME, EntryTable.TIME),
+															column("bizId", LONG, EntryTable.BIZ_ID),
+															column("subId", LONG, EntryTable.SUB_ID),
+															column("itemId", LONG, EntryTable.ITEM_ID),
+															column("skuId", LONG, EntryTable.SKU_ID),
+															column("reason", REASON, 0));
+
+	public static final EntrySchema	FULL_WITHHOLD	= new EntrySchema(EntryTable.FULL_WITHHOLD, "full-withhold", "full-withhold",
+															column("time", TIME, EntryTable.TIME),
+															column("bizId", LONG, EntryTable.BIZ_ID),
+															column("subId", LONG, EntryTable.SUB_ID),
+															column("itemId", LONG, EntryTable.ITEM_ID),
+															column("afterPayment", TEXT, EntryTable.AFTER_PAYMENT),
+															column("succ", TEXT, EntryTable.SUCC),
+															column("code", TEXT, EntryTable.CODE));
+
+	private static final EntrySchema[]	BY_TYPE		= new EntrySchema[EntryTable.FULL_WITHHOLD + 1];
+
+	static {
+		for (EntrySchema schema : new EntrySchema[] { REDUCE, WITHHOLD, REDUCE_INFO, FULL_WITHHOLD }) {
+			BY_TYPE[schema.type] = schema;
+		}
+	}
+
+	public final byte			type;
+	public final String			name;
+	/** ļչ */
+	public final String			file;
+	public final List<Column>	columns;
+
+	EntrySchema(byte type, String name, String file, Column... columns) {
+		this.type = type;
+		this.name = name;
+		this.file = file;
+		this.columns = Collections.unmodifiableList(Arrays.asList(columns));
+	}
+
+	public static EntrySchema of(byte type) {
+		return type > 0 && type < BY_TYPE.length ? BY_TYPE[type] : null;
+	}
+
+	public static List<EntrySchema> all() {
+		return Arrays.asList(REDUCE, WITHHOLD, REDUCE_INFO, FULL_WITHHOLD);
+	}
+
+	static Column column(String name, byte kind, int index) {
+		return new Column(name, kind, index);
+	}
+}
@@ -0,0 +1,27 @@
+package com.shansun.demo.log;
+
+import java.io.IOException;
+
+/**
+ * ¼Ŀĵأдļ̵̵߳߳
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public interface EntrySink {
+
+	/**
+	 * дһ¼а{@link EntrySchema}
+	 */
+	void write(EntryTable table) throws IOException;
+
+	void flush() throws IOException;
+
+	/**
+	 * ۼдֽ(ѽļϵͳĲ)
+	 */
+	long bytesWritten();
+
+	void close() throws IOException;
+}
@@ -0,0 +1,351 @@
+package com.shansun.demo.log;
+
+import java.util.Arrays;
+
+/**
+ * дŵ־¼һʵһ
+ * <p>
+ * šƷŵlongУʱ䡢ʱintУ롢T/Fȡֵ޵ֶ
+ * ֵšǹ淶д(մǰ0)ʱֵͬţΪ
+ * κȡֵԭԭֻмʧԭּظıString
+ * <p>
+ * ̰߳ȫһ߳д󽻸дļ̶֮߳{@link #clear()}á
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class EntryTable {
+
+	// ¼
+	public static final byte		REDUCE			= 1;
+	public static final byte		WITHHOLD		= 2;
+	public static final byte		REDUCE_INFO		= 3;
+	public static final byte		FULL_WITHHOLD	= 4;
+
+	// long
+	public static final int			BIZ_ID			= 0;
+	public static final int			SUB_ID			= 1;
+	public static final int			ITEM_ID			= 2;
+	public static final int			SKU_ID			= 3;
+	public static final int			USER_ID			= 4;
+	static final int				LONG_COLUMNS	= 5;
+
+	// intУTIME浱DATE1970-01-01
+	public static final int			TIME			= 0;
+	public static final int			USING			= 1;
+	public static final int			QUANTITY		= 2;
+	public static final int			DATE			= 3;
+	static final int				INT_COLUMNS		= 4;
+
+	// ֵ
+	public static final int			SUCC			= 0;
+	public static final int			CODE			= 1;
+	public static final int			ENOUGH			= 2;
+	public static final int			AFTER_PAYMENT	= 3;
+	public static final int			CALLER			= 4;
+	static final int				TEXT_COLUMNS	= 5;
+
+	/** long/intеĿֵ */
+	public static final long		NULL			= Long.MIN_VALUE;
+	public static final int			NULL_INT		= Integer.MIN_VALUE;
+
+	private static final int		MAX_LONG_DIGITS	= 18;
+	private static final int		MAX_INT_DIGITS	= 9;
+
+	private final StringDictionary	dictionary;
+	private final int				capacity;
+	private int						size;
+
+	final byte[]					types;
+	final long[][]					longs;
+	final int[][]					ints;
+	final int[][]					texts;
+	final String[]					reasons;
+
+	public EntryTable(StringDictionary dictionary, int capacity) {
+		this.dictionary = dictionary;
+		this.capacity = capacity;
+		this.types = new byte[capacity];
+		this.longs = new long[LONG_COLUMNS][capacity];
+		this.ints = new int[INT_COLUMNS][capacity];
+		this.texts = new int[TEXT_COLUMNS][capacity];
+		this.reasons = new String[capacity];
+	}
+
+	public StringDictionary dictionary() {
+		return dictionary;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	public boolean isFull() {
+		return size == capacity;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		Arrays.fill(reasons, 0, size, null);
+		size = 0;
+	}
+
+	/**
+	 * ׷һУгʼΪֵк
+	 */
+	public int add(byte type) {
+		int row = size++;
+		types[row] = type;
+		for (int c = 0; c < LONG_COLUMNS; c++) {
+			longs[c][row] = NULL;
+		}
+		for (int c = 0; c < INT_COLUMNS; c++) {
+			ints[c][row] = NULL_INT;
+		}
+		for (int c = 0; c < TEXT_COLUMNS; c++) {
+			texts[c][row] = NULL_INT;
+		}
+		return row;
+	}
+
+	public byte type(int row) {
+		return types[row];
+	}
+
+	// ---------------------------------------------------------------------
+	// д
+	// ---------------------------------------------------------------------
+
+	public void setLong(int column, int row, long value) {
+		longs[column][row] = value;
+	}
+
+	public void setLong(int column, int row, String value) {
+		long v = parse(value, MAX_LONG_DIGITS);
+		longs[column][row] = v >= 0 ? v : encodeLong(value);
+	}
+
+	/**
+	 * ֱӴɨķȡ֣淶ʮString
+	 */
+	public void setLong(int column, int row, AbstractLineScanner scanner, int group) {
+		long v = scanner.number(group, MAX_LONG_DIGITS);
+		longs[column][row] = v >= 0 ? v : encodeLong(scanner.group(group));
+	}
+
+	public void setInt(int column, int row, String value) {
+		long v = parse(value, MAX_INT_DIGITS);
+		ints[column][row] = v >= 0 ? (int) v : encode(value);
+	}
+
+	public void setInt(int column, int row, AbstractLineScanner scanner, int group) {
+		long v = scanner.number(group, MAX_INT_DIGITS);
+		ints[column][row] = v >= 0 ? (int) v : encode(scanner.group(group));
+	}
+
+	/**
+	 * HH:mm:ssΪдֵ
+	 */
+	public void setTime(int row, String value) {
+		int v = parseTime(value);
+		ints[TIME][row] = v >= 0 ? v : encode(value);
+	}
+
+	public void setTime(int row, AbstractLineScanner scanner, int group) {
+		int v = scanner.time(group);
+		ints[TIME][row] = v >= 0 ? v : encode(scanner.group(group));
+	}
+
+	/**
+	 * ־׵ڣ淶ʱ
+	 */
+	public void setDate(int row, AbstractLineScanner scanner, int group) {
+		int v = scanner.day(group);
+		ints[DATE][row] = v >= 0 ? v : NULL_INT;
+	}
+
+	public void setText(int column, int row, String value) {
+		texts[column][row] = value == null ? NULL_INT : dictionary.id(value);
+	}
+
+	public void setReason(int row, String reason) {
+		reasons[row] = reason;
+	}
+
+	// ---------------------------------------------------------------------
+	// 
+	// ---------------------------------------------------------------------
+
+	/** ԭʼֵǸΪֱΪֵţNULLΪ */
+	public long longValue(int column, int row) {
+		return longs[column][row];
+	}
+
+	public int intValue(int column, int row) {
+		return ints[column][row];
+	}
+
+	public int textId(int column, int row) {
+		return texts[column][row];
+	}
+
+	public String getLong(int column, int row) {
+		long v = longs[column][row];
+		if (v == NULL) {
+			return null;
+		}
+		return v >= 0 ? Long.toString(v) : dictionary.get((int) (-v - 1));
+	}
+
+	public String getInt(int column, int row) {
+		return decode(ints[column][row]);
+	}
+
+	public String getTime(int row) {
+		int v = ints[TIME][row];
+		if (v < 0) {
+			return decode(v);
+		}
+		char[] c = new char[8];
+		twoDigits(c, 0, v / 3600);
+		c[2] = ':';
+		twoDigits(c, 3, v / 60 % 60);
+		c[5] = ':';
+		twoDigits(c, 6, v % 60);
+		return new String(c);
+	}
+
+	public String getText(int column, int row) {
+		int id = texts[column][row];
+		return id == NULL_INT ? null : dictionary.get(id);
+	}
+
+	public String getReason(int row) {
+		return reasons[row];
+	}
+
+	/**
+	 * ֵintУֵķǹ淶д(ǰ0)Ҳַ-1
+	 */
+	public long number(int column, int row) {
+		int v = ints[column][row];
+		if (v >= 0) {
+			return v;
+		}
+		return v == NULL_INT ? -1 : lenientNumber(dictionary.get(-v - 1));
+	}
+
+	/**
+	 * H:m:sȷǹ淶дҲ˷-1
+	 */
+	public int seconds(int row) {
+		int v = ints[TIME][row];
+		if (v >= 0) {
+			return v;
+		}
+		if (v == NULL_INT) {
+			return -1;
+		}
+		String[] hms = dictionary.get(-v - 1).split(":");
+		if (hms.length != 3) {
+			return -1;
+		}
+		long h = lenientNumber(hms[0]), m = lenientNumber(hms[1]), s = lenientNumber(hms[2]);
+		if (h < 0 || h > 23 || m < 0 || m > 59 || s < 0 || s > 59) {
+			return -1;
+		}
+		return (int) (h * 3600 + m * 60 + s);
+	}
+
+	/**
+	 * 1970-01-01 00:00:00(ʱ)ûʱǵʱ˷-1
+	 */
+	public long epochSeconds(int row) {
+		int s = seconds(row);
+		if (s < 0) {
+			return -1;
+		}
+		int day = ints[DATE][row];
+		return day == NULL_INT ? s : day * 86400L + s;
+	}
+
+	// ---------------------------------------------------------------------
+
+	private long encodeLong(String value) {
+		return value == null ? NULL : -dictionary.id(value) - 1L;
+	}
+
+	private int encode(String value) {
+		return value == null ? NULL_INT : -dictionary.id(value) - 1;
+	}
+
+	private String decode(int v) {
+		if (v == NULL_INT) {
+			return null;
+		}
+		return v >= 0 ? Integer.toString(v) : dictionary.get(-v - 1);
+	}
+
+	private static void twoDigits(char[] c, int at, int v) {
+		c[at] = (char) ('0' + v / 10);
+		c[at + 1] = (char) ('0' + v % 10);
+	}
+
+	/**
+	 * 淶ʮ(ǰ0maxDigitsλ)ֵ򷵻-1
+	 */
+	static long parse(String value, int maxDigits) {
+		if (value == null) {
+			return -1;
+		}
+		int len = value.length();
+		if (len == 0 || len > maxDigits || (len > 1 && value.charAt(0) == '0')) {
+			return -1;
+		}
+		long v = 0;
+		for (int i = 0; i < len; i++) {
+			char c = value.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			v = v * 10 + (c - '0');
+		}
+		return v;
+	}
+
+	/**
+	 * 18λĴ(ǰ0)ֵ򷵻-1
+	 */
+	static long lenientNumber(String value) {
+		int len = value.length();
+		int i = 0;
+		while (i < len - 1 && value.charAt(i) == '0') {
+			i++;
+		}
+		return parse(value.substring(i), MAX_LONG_DIGITS);
+	}
+
+	/**
+	 * ϸHH:mm:ssص򷵻-1
+	 */
+	static int parseTime(String value) {
+		if (value == null || value.length() != 8 || value.charAt(2) != ':' || value.charAt(5) != ':') {
+			return -1;
+		}
+		int h = AbstractLineScanner.twoDigits(value.charAt(0), value.charAt(1));
+		int m = AbstractLineScanner.twoDigits(value.charAt(3), value.charAt(4));
+		int s = AbstractLineScanner.twoDigits(value.charAt(6), value.charAt(7));
+		if (h < 0 || h > 23 || m < 0 || m > 59 || s < 0 || s > 59) {
+			return -1;
+		}
+		return h * 3600 + m * 60 + s;
+	}
+}
@@ -0,0 +1,126 @@
+package com.shansun.demo.log;
+
+/**
+ * HdrHistogramʽĺʱֱͼ2ݷͰÿͰٵȷֳɹ̶Ͱ
+ * ȡֵЧλռڴ¼޹
+ * <p>
+ * ̰߳ȫÿ̸߳Ǹģ{@link #merge(LatencyHistogram)}ϲ
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class LatencyHistogram {
+
+	private final long		highestTrackable;
+	private final int		subBucketHalfCountMagnitude;
+	private final int		subBucketHalfCount;
+	private final long		subBucketMask;
+
+	private final long[]	counts;
+
+	private long			totalCount;
+	private long			sum;
+	private long			min	= Long.MAX_VALUE;
+	private long			max	= 0;
+
+	/**
+	 * @param highestTrackable ֵֵֵһ
+	 * @param significantDigits Чλ(1~5)
+	 */
+	public LatencyHistogram(long highestTrackable, int significantDigits) {
+		if (highestTrackable < 2 || significantDigits < 1 || significantDigits > 5) {
+			throw new IllegalArgumentException("highestTrackable=" + highestTrackable + ", significantDigits=" + significantDigits);
+		}
+		this.highestTrackable = highestTrackable;
+
+		long largestSingleUnitResolution = 2 * (long) Math.pow(10, significantDigits);
+		int subBucketCountMagnitude = (int) Math.ceil(Math.log(largestSingleUnitResolution) / Math.log(2));
+		this.subBucketHalfCountMagnitude = subBucketCountMagnitude - 1;
+		this.subBucketHalfCount = 1 << subBucketHalfCountMagnitude;
+		this.subBucketMask = (1L << subBucketCountMagnitude) - 1;
+
+		int buckets = 1;
+		long smallestUntrackable = 1L << subBucketCountMagnitude;
+		while (smallestUntrackable <= highestTrackable) {
+			smallestUntrackable <<= 1;
+			buckets++;
+		}
+		this.counts = new long[(buckets + 1) << subBucketHalfCountMagnitude];
+	}
+
+	public void record(long value) {
+		if (value < 0) {
+			throw new IllegalArgumentException("negative value: " + value);
+		}
+		counts[index(Math.min(value, highestTrackable))]++;
+		totalCount++;
+		sum += value;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	public void merge(LatencyHistogram other) {
+		if (other.counts.length != counts.length || other.subBucketHalfCountMagnitude != subBucketHalfCountMagnitude) {
+			throw new IllegalArgumentException("incompatible histogram");
+		}
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] += other.counts[i];
+		}
+		totalCount += other.totalCount;
+		sum += other.sum;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+	}
+
+	public long count() {
+		return totalCount;
+	}
+
+	public long min() {
+		return totalCount == 0 ? 0 : min;
+	}
+
+	public long max() {
+		return max;
+	}
+
+	public double mean() {
+		return totalCount == 0 ? 0 : (double) sum / totalCount;
+	}
+
+	/**
+	 * percentile(0~100)ٷλֵȡڸϽ磬ʵֵ
+	 */
+	public long percentile(double percentile) {
+		if (totalCount == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * totalCount));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= target) {
+				return Math.min(highestEquivalentValue(i), max);
+			}
+		}
+		return max;
+	}
+
+	private int index(long value) {
+		int bucket = 64 - Long.numberOfLeadingZeros(value | subBucketMask) - (subBucketHalfCountMagnitude + 1);
+		int subBucket = (int) (value >>> bucket);
+		return ((bucket + 1) << subBucketHalfCountMagnitude) + (subBucket - subBucketHalfCount);
+	}
+
+	private long highestEquivalentValue(int index) {
+		int bucket = (index >> subBucketHalfCountMagnitude) - 1;
+		int subBucket = (index & (subBucketHalfCount - 1)) + subBucketHalfCount;
+		if (bucket < 0) {
+			subBucket -= subBucketHalfCount;
+			bucket = 0;
+		}
+		long lowest = (long) subBucket << bucket;
+		return lowest + (1L << bucket) - 1;
+	}
+}
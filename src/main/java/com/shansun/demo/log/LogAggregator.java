@@ -0,0 +1,192 @@
+package com.shansun.demo.log;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * ʱ˳ܣ¼ʧܴ÷ĺʱֲÿӵʧ
+ * ʧϢԭ
+ * <p>
+ * ÿ߳()һʵдʱ{@link #add(EntryTable)}ɨһ飬
+ * дļ߳{@link #merge(LogAggregator)}ϲ롢÷ֵż
+ * Ժϲʵ빲ͬһֵ䡣̰߳ȫ
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class LogAggregator {
+
+	/** using1~5λ */
+	public static final long		MAX_USING			= 99999;
+
+	public static final int			SIGNIFICANT_DIGITS	= 2;
+
+	public static final int			MINUTES				= 24 * 60;
+
+	private static final byte[]		TYPES				= { EntryTable.REDUCE, EntryTable.WITHHOLD, EntryTable.REDUCE_INFO, EntryTable.FULL_WITHHOLD };
+
+	private final StringDictionary	dictionary;
+
+	/** [¼][] */
+	private final long[][]			failures			= new long[EntryTable.FULL_WITHHOLD + 1][];
+
+	/** [÷] */
+	private LatencyHistogram[]		latencies			= new LatencyHistogram[16];
+
+	private final long[]			rowsPerMinute		= new long[MINUTES];
+	private final long[]			failuresPerMinute	= new long[MINUTES];
+
+	private final Map<String, Long>	reasons				= new TreeMap<String, Long>();
+
+	private long					rows;
+
+	public LogAggregator(StringDictionary dictionary) {
+		this.dictionary = dictionary;
+		for (byte type : TYPES) {
+			failures[type] = new long[16];
+		}
+	}
+
+	public void add(EntryTable table) {
+		int trueId = dictionary.id("true");
+		int okId = dictionary.id("T");
+
+		int[] succ = table.texts[EntryTable.SUCC];
+		int[] code = table.texts[EntryTable.CODE];
+		int[] caller = table.texts[EntryTable.CALLER];
+
+		for (int row = 0, size = table.size(); row < size; row++) {
+			byte type = table.types[row];
+			rows++;
+
+			boolean failed;
+			if (type == EntryTable.REDUCE_INFO) {
+				failed = true;
+				String reason = table.reasons[row];
+				Long n = reasons.get(reason);
+				reasons.put(reason, n == null ? 1L : n + 1);
+			} else {
+				int s = succ[row];
+				failed = s != EntryTable.NULL_INT && s != trueId && s != okId;
+				if (failed) {
+					// ûеĴʱɹ־ԭļ
+					failures[type] = count(failures[type], code[row] != EntryTable.NULL_INT ? code[row] : s);
+				}
+
+				long using = table.number(EntryTable.USING, row);
+				if (using >= 0 && caller[row] != EntryTable.NULL_INT) {
+					histogram(caller[row]).record(using);
+				}
+			}
+
+			int seconds = table.seconds(row);
+			if (seconds >= 0) {
+				rowsPerMinute[seconds / 60]++;
+				if (failed) {
+					failuresPerMinute[seconds / 60]++;
+				}
+			}
+		}
+	}
+
+	public void merge(LogAggregator other) {
+		if (other.dictionary != dictionary) {
+			throw new IllegalArgumentException("aggregators must share one dictionary");
+		}
+		rows += other.rows;
+		for (byte type : TYPES) {
+			long[] from = other.failures[type];
+			for (int id = 0; id < from.length; id++) {
+				if (from[id] > 0) {
+					failures[type] = count(failures[type], id, from[id]);
+				}
+			}
+		}
+		for (int id = 0; id < other.latencies.length; id++) {
+			if (other.latencies[id] != null) {
+				histogram(id).merge(other.latencies[id]);
+			}
+		}
+		for (int m = 0; m < MINUTES; m++) {
+			rowsPerMinute[m] += other.rowsPerMinute[m];
+			failuresPerMinute[m] += other.failuresPerMinute[m];
+		}
+		for (Map.Entry<String, Long> e : other.reasons.entrySet()) {
+			Long n = reasons.get(e.getKey());
+			reasons.put(e.getKey(), n == null ? e.getValue() : n + e.getValue());
+		}
+	}
+
+	public long rows() {
+		return rows;
+	}
+
+	/**
+	 * ĳ¼ʧܴ
+	 */
+	public Map<String, Long> failures(byte type) {
+		Map<String, Long> result = new TreeMap<String, Long>();
+		long[] counts = failures[type];
+		for (int id = 0; id < counts.length; id++) {
+			if (counts[id] > 0) {
+				result.put(dictionary.get(id), counts[id]);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * ʧϢԭ
+	 */
+	public Map<String, Long> reasons() {
+		return reasons;
+	}
+
+	/**
+	 * ÷ĺʱֲ
+	 */
+	public Map<String, LatencyHistogram> latencies() {
+		Map<String, LatencyHistogram> result = new TreeMap<String, LatencyHistogram>();
+		for (int id = 0; id < latencies.length; id++) {
+			if (latencies[id] != null) {
+				result.put(dictionary.get(id), latencies[id]);
+			}
+		}
+		return result;
+	}
+
+	/** ±Ϊڼ */
+	public long[] rowsPerMinute() {
+		return rowsPerMinute;
+	}
+
+	public long[] failuresPerMinute() {
+		return failuresPerMinute;
+	}
+
+	private LatencyHistogram histogram(int callerId) {
+		if (callerId >= latencies.length) {
+			latencies = Arrays.copyOf(latencies, Math.max(callerId + 1, latencies.length * 2));
+		}
+		LatencyHistogram histogram = latencies[callerId];
+		if (histogram == null) {
+			histogram = new LatencyHistogram(MAX_USING, SIGNIFICANT_DIGITS);
+			latencies[callerId] = histogram;
+		}
+		return histogram;
+	}
+
+	private static long[] count(long[] counts, int id) {
+		return count(counts, id, 1);
+	}
+
+	private static long[] count(long[] counts, int id, long n) {
+		if (id >= counts.length) {
+			counts = Arrays.copyOf(counts, Math.max(id + 1, counts.length * 2));
+		}
+		counts[id] += n;
+		return counts;
+	}
+}
@@ -0,0 +1,574 @@
+package com.shansun.demo.log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.shansun.demo.tool.FileSplitter;
+
+/**
+ * ϳinventoryplatform־ѹ͹ģԣFinal-reduceԤۡԤۡ
+ * ʧ(мIpmException쳣ջ)ͨ־ȫgb2312
+ * <p>
+ * ļ{@link #BLOCK_SIZE}п飬ÿ(seed, ļ, )ȷ̳߳ﲢɣ
+ * ٰ˳FileChannelдͬĲܼ߳ɵݶһÿļʱ
+ * 00:00:00ߵ23:59:59ڵ
+ * <p>
+ * Ԥ-Dgenerator.join(Ĭ0.5)ıǵƷsuborderidȡjoinWindowһûԵԤ۵
+ * orderidWithholdJoinerڽûԤʱš
+ * <p>
+ * ÷LogGenerator &lt;Ŀ¼&gt; [ÿļС512m10gĬ1g] [ļĬ1] [߳ĬCPU]
+ * -Dgenerator.reduce/batch/single/trace/text(ȨأԶһ)ʧܱ-Dgenerator.fail
+ * Ʒ-Dgenerator.joinԤ-Dgenerator.joinWindow(Ĭ60)
+ * 쳣ջ༸֡-Dgenerator.depth-Dgenerator.seed쳣Ϣԭȡ-Danalyzer.reasons
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class LogGenerator {
+
+	public static final int				BLOCK_SIZE		= 1024 * 1024;
+
+	/** һ¼ȥ쳣ջ֡ԭֽô */
+	static final int					MAX_RECORD		= 16 * 1024;
+
+	/** ޣ-Dgenerator.depthԭǳ;ܾ */
+	static final int					MAX_HEADROOM	= 64 * 1024 * 1024;
+
+	static final int					DAY				= 24 * 3600;
+
+	/** ÿסԤۣƷȡorderid */
+	static final int					RECENT_BATCHES	= 64;
+
+	public static final int				REDUCE			= 0;
+	public static final int				BATCH			= 1;
+	public static final int				SINGLE			= 2;
+	public static final int				TRACE			= 3;
+	public static final int				TEXT			= 4;
+	static final String[]				KINDS			= { "reduce", "batch", "single", "trace", "text" };
+
+	static final String					CHARSET			= "gb2312";
+
+	private static final byte[]			DATE			= bytes("2012-11-11 ");
+	private static final byte[]			WARN_TRADE		= bytes(" WARN IPM-Trade - ");
+	private static final byte[]			BATCH_HEAD		= bytes("P1-WithholdInventory-Batch [");
+	private static final byte[]			BATCH_BUY_HEAD	= bytes("P1-WithholdInventory-Batch-Buy [");
+	private static final byte[]			SINGLE_HEAD		= bytes("P1-WithholdInventory-Single[");
+	private static final byte[]			REDUCE_HEAD		= bytes("Final-reduce~IA [");
+	private static final byte[]			ALIPAY			= bytes(",tc-alipay,");
+	private static final byte[]			TMALL_BUY		= bytes(",tmall_buy,");
+	private static final byte[]			TF				= bytes(",tf,");
+	private static final byte[]			TC				= bytes(",tc,");
+	private static final byte[]			ORDER_ID		= bytes("ms] orderid=");
+	private static final byte[]			SUB_ORDER_ID	= bytes("ms] suborderid=");
+	private static final byte[]			QUANTITY		= bytes(",quantity=");
+	private static final byte[]			AFTER_PAYMENT	= bytes(",AfterPayment=");
+	private static final byte[]			TRUE			= bytes("true");
+	private static final byte[]			FALSE			= bytes("false");
+	private static final byte[]			ITEM			= bytes(",item=");
+	private static final byte[]			USER_ID			= bytes(" user_id=");
+	private static final byte[]			SUB_IDS			= bytes(" order_sub_ids=");
+	private static final byte[]			SUCCESS			= bytes(" [T]");
+	private static final byte[]			FAILURE			= bytes(" [F->");
+	private static final byte[]			NOT_ENOUGH		= bytes(" ,Not-Enough\n");
+	private static final byte[]			SINGLE_OK		= bytes(" ok,Not-Enough\n");
+	private static final byte[]			DETAIL_ERROR	= bytes("F->IpmExceptionѯԤ ӶţӶ=");
+	private static final byte[]			DETAIL_ITEM		= bytes(",itemId=");
+	private static final byte[]			DETAIL_INFO		= bytes("] I->IpmExceptionѯԤ ӶţӶ=");
+	private static final byte[]			SINGLE_END		= bytes(",Not-Enough,null\n");
+	private static final byte[]			TRACE_HEAD		= bytes(" WARN IPM - reduceQuantityByBizOrderIdʧIpmException =");
+	private static final byte[]			TRACE_SUB		= bytes(",Ӷ=");
+	private static final byte[]			TRACE_ITEM		= bytes(",icItemId=");
+	private static final byte[]			TRACE_SKU		= bytes(",skuId=");
+	private static final byte[]			EXCEPTION		= bytes("com.taobao.ipm.IpmException: ");
+	private static final byte[]			CAUSED_BY		= bytes("Caused by: com.taobao.ipm.IpmException: ");
+	private static final byte[]			INFO			= bytes(" INFO IPM - ");
+	private static final byte[]			TEXT_ITEM		= bytes(" itemId=");
+	private static final byte[]			TEXT_COST		= bytes(" ʱ");
+	private static final byte[]			MS				= bytes("ms\n");
+
+	private static final byte[][]		BATCH_CODES		= bytes("IP_ILLEGAL_INVENTORY_STATUS_Complete", "IP_ILLEGAL_STATUS", "IP_INVENTORY_NOT_ENOUGH",
+																"IP_QUERY_ERROR");
+	private static final byte[][]		SINGLE_CODES	= bytes("IP_QUERY_Inventory_Detail_ERROR", "IP_QUERY_ERROR", "IP_WITHHOLD_ERROR");
+	private static final byte[][]		REDUCE_CODES	= bytes("IP_REDUCE_ERROR", "IP_ILLEGAL_STATUS");
+	private static final byte[][]		FRAMES			= bytes("\tat com.taobao.ipm.ReduceService.reduce(ReduceService.java:",
+																"\tat com.taobao.ipm.dao.InventoryDAO.update(InventoryDAO.java:",
+																"\tat com.taobao.ipm.InventoryManager.reduceQuantity(InventoryManager.java:",
+																"\tat com.taobao.hsf.remoting.provider.ProviderProcessor.handleRequest(ProviderProcessor.java:",
+																"\tat com.ibatis.sqlmap.engine.impl.SqlMapExecutorDelegate.update(SqlMapExecutorDelegate.java:");
+	private static final byte[]			FRAME_END		= bytes(")\n");
+	private static final byte[]			UNKNOWN_ERROR	= bytes("æԺ");
+	private static final byte[][]		MESSAGES		= bytes("ѯɹ", "Ԥ", "δУԴѯ", "ʼ", "ͷԤۿ");
+
+	private final double[]				cumulative		= new double[KINDS.length];
+	private final double				fail;
+	private final double				join;
+	private final int					joinWindow;
+	private final int					depth;
+	private final byte[][]				markers;
+	private final long					seed;
+	/** BLOCK_SIZE֮ŵһ¼ */
+	private final int					headroom;
+
+	/** ¼ */
+	private final AtomicLongArray		records			= new AtomicLongArray(KINDS.length);
+	private final AtomicLong			lines			= new AtomicLong();
+
+	/**
+	 * @param ratios Ϊ{@link #REDUCE}{@link #TEXT}¼Ȩ
+	 * @param fail Ԥۺͼ¼ʧܵı
+	 * @param join ԤﵥƷısuborderid֮ǰһԤ۵orderidͬ
+	 * @param joinWindow ƷӦԤ
+	 * @param depth 쳣ջ༸֡
+	 * @param markers 쳣Ϣԭǣ{@link ReasonClassifier#markers()}
+	 */
+	public LogGenerator(double[] ratios, double fail, double join, int joinWindow, int depth, List<String> markers, long seed) {
+		if (ratios.length != KINDS.length) {
+			throw new IllegalArgumentException("Expected " + KINDS.length + " ratios");
+		}
+		double total = 0;
+		for (double ratio : ratios) {
+			if (ratio < 0) {
+				throw new IllegalArgumentException("Negative ratio: " + ratio);
+			}
+			total += ratio;
+		}
+		if (total <= 0) {
+			throw new IllegalArgumentException("All ratios are zero");
+		}
+		double sum = 0;
+		for (int i = 0; i < ratios.length; i++) {
+			sum += ratios[i] / total;
+			cumulative[i] = sum;
+		}
+		cumulative[ratios.length - 1] = 1;
+
+		this.fail = fail;
+		this.join = join;
+		this.joinWindow = Math.max(0, joinWindow);
+		this.depth = Math.max(1, depth);
+		this.markers = bytes(markers.toArray(new String[markers.size()]));
+		this.seed = seed;
+
+		// һ֡ࡢ쳣ջ쳣ϢкCaused byһǣÿ֡3λк
+		long frame = longest(FRAMES) + 3 + FRAME_END.length;
+		long marker = Math.max(UNKNOWN_ERROR.length, longest(this.markers));
+		long headroom = MAX_RECORD + this.depth * frame + 2 * marker;
+		if (headroom > MAX_HEADROOM) {
+			throw new IllegalArgumentException("Trace too long for a block: depth " + this.depth + ", longest marker " + marker + " bytes");
+		}
+		this.headroom = (int) headroom;
+	}
+
+	private static int longest(byte[][] choices) {
+		int longest = 0;
+		for (byte[] choice : choices) {
+			longest = Math.max(longest, choice.length);
+		}
+		return longest;
+	}
+
+	/**
+	 * -Dgenerator.*-Danalyzer.reasons
+	 */
+	public static LogGenerator fromProperties() throws IOException {
+		double[] ratios = new double[KINDS.length];
+		double[] defaults = { 0.2, 0.3, 0.3, 0.05, 0.15 };
+		for (int i = 0; i < ratios.length; i++) {
+			ratios[i] = Double.parseDouble(System.getProperty("generator." + KINDS[i], String.valueOf(defaults[i])));
+		}
+		double fail = Double.parseDouble(System.getProperty("generator.fail", "0.2"));
+		double join = Double.parseDouble(System.getProperty("generator.join", "0.5"));
+		int joinWindow = Integer.getInteger("generator.joinWindow", 60);
+		int depth = Integer.getInteger("generator.depth", 8);
+		long seed = Long.getLong("generator.seed", 20121111);
+		List<String> markers = ReasonClassifier.load(System.getProperty("analyzer.reasons")).markers();
+		return new LogGenerator(ratios, fail, join, joinWindow, depth, markers, seed);
+	}
+
+	/**
+	 * һԼsizeֽڵļ(һ¼дԳ)executorɣͬʱwindow
+	 *
+	 * @param fileNo ļţ
+	 * @return дֽ
+	 */
+	public long write(File file, final int fileNo, final long size, ExecutorService executor, int window) throws IOException,
+			InterruptedException {
+		final long blocks = Math.max(1, (size + BLOCK_SIZE - 1) / BLOCK_SIZE);
+
+		Queue<Block> free = new ArrayDeque<Block>();
+		for (int i = 0; i < Math.max(1, window); i++) {
+			free.add(new Block(headroom));
+		}
+		Queue<Future<Block>> pending = new ArrayDeque<Future<Block>>();
+
+		long written = 0;
+		FileChannel channel = new FileOutputStream(file).getChannel();
+		try {
+			long next = 0;
+			while (next < blocks || !pending.isEmpty()) {
+				// еĿ鶼ɳȥٰ˳һ
+				while (next < blocks && !free.isEmpty()) {
+					final Block block = free.poll();
+					final long index = next++;
+					final int target = (int) Math.min(BLOCK_SIZE, size - index * BLOCK_SIZE);
+					pending.add(executor.submit(new Callable<Block>() {
+
+						@Override
+						public Block call() {
+							fill(block, fileNo, index, blocks, target);
+							return block;
+						}
+					}));
+				}
+
+				Block block;
+				try {
+					block = pending.poll().get();
+				} catch (ExecutionException e) {
+					throw new IOException(e.getCause().toString(), e.getCause());
+				}
+				ByteBuffer buffer = ByteBuffer.wrap(block.bytes, 0, block.size);
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+				written += block.size;
+				free.add(block);
+			}
+		} finally {
+			channel.close();
+		}
+		return written;
+	}
+
+	public long records(int kind) {
+		return records.get(kind);
+	}
+
+	public long lines() {
+		return lines.get();
+	}
+
+	/**
+	 * ɵindex飬дtargetֽ(һ¼д)Ϊֹ
+	 */
+	void fill(Block block, int fileNo, long index, long blocks, int target) {
+		Random random = new Random((seed * 31 + fileNo) * 1000003 + index);
+		long start = DAY * index / blocks;
+		long end = DAY * (index + 1) / blocks;
+
+		block.size = 0;
+		block.lines = 0;
+		block.recent = 0;
+		int[] counts = new int[KINDS.length];
+		while (block.size < target) {
+			int time = (int) Math.min(DAY - 1, start + (end - start) * block.size / target);
+			int kind = kind(random.nextDouble());
+			counts[kind]++;
+			switch (kind) {
+			case REDUCE:
+				reduce(block, time, random);
+				break;
+			case BATCH:
+				batch(block, time, random);
+				break;
+			case SINGLE:
+				single(block, time, random);
+				break;
+			case TRACE:
+				trace(block, time, random);
+				break;
+			default:
+				text(block, time, random);
+			}
+		}
+
+		for (int i = 0; i < counts.length; i++) {
+			records.addAndGet(i, counts[i]);
+		}
+		lines.addAndGet(block.lines);
+	}
+
+	private int kind(double r) {
+		for (int i = 0; i < cumulative.length - 1; i++) {
+			if (r < cumulative[i]) {
+				return i;
+			}
+		}
+		return cumulative.length - 1;
+	}
+
+	void batch(Block block, int time, Random random) {
+		boolean buy = random.nextInt(4) == 0;
+		block.put(DATE).time(time).put(WARN_TRADE).put(buy ? BATCH_BUY_HEAD : BATCH_HEAD);
+		ip(block, random).put(buy ? TMALL_BUY : ALIPAY).number(millis(random)).put(ORDER_ID);
+		int id = block.size;
+		block.digits(random, 15);
+		block.remember(id, time);
+		if (random.nextDouble() < fail) {
+			block.put(FAILURE).put(pick(BATCH_CODES, random)).put((byte) ']');
+		} else {
+			block.put(SUCCESS);
+		}
+		block.put(NOT_ENOUGH);
+		block.lines++;
+	}
+
+	void single(Block block, int time, Random random) {
+		block.put(DATE).time(time).put(WARN_TRADE).put(SINGLE_HEAD);
+		ip(block, random).put(TF).number(millis(random)).put(SUB_ORDER_ID);
+		int id = block.size;
+		int batch = join > 0 && random.nextDouble() < join ? block.take(time - joinWindow, random) : -1;
+		if (batch >= 0) {
+			block.copy(batch, batch + 15);
+		} else {
+			block.digits(random, 15);
+		}
+		int idEnd = block.size;
+		block.put(QUANTITY).number(1 + random.nextInt(5)).put(AFTER_PAYMENT).put(bytes(random.nextBoolean())).put(ITEM);
+		int item = block.size;
+		block.digits(random, 11);
+		int itemEnd = block.size;
+
+		if (random.nextDouble() < fail) {
+			block.put(FAILURE).put(pick(SINGLE_CODES, random)).put(DETAIL_ERROR).copy(id, idEnd).put(DETAIL_ITEM).copy(item, itemEnd);
+			block.put(DETAIL_INFO).copy(id, idEnd).put(DETAIL_ITEM).copy(item, itemEnd).put(SINGLE_END);
+		} else {
+			block.put(SUCCESS).put(SINGLE_OK);
+		}
+		block.lines++;
+	}
+
+	void reduce(Block block, int time, Random random) {
+		block.put(DATE).time(time).put(WARN_TRADE).put(REDUCE_HEAD);
+		ip(block, random).put(TC).number(millis(random)).put(ORDER_ID);
+		int id = block.size;
+		block.digits(random, 15);
+		int idEnd = block.size;
+		block.put(USER_ID).digits(random, 9).put(SUB_IDS).copy(id, idEnd).put((byte) '/');
+		if (random.nextDouble() < fail) {
+			block.put(FAILURE).put(pick(REDUCE_CODES, random)).put((byte) ']');
+		} else {
+			block.put(SUCCESS);
+		}
+		block.put((byte) '\n');
+		block.lines++;
+	}
+
+	/**
+	 * ʧܣС쳣Ϣк֡ԭǶ쳣ϢУCaused by
+	 */
+	void trace(Block block, int time, Random random) {
+		block.put(DATE).time(time).put(TRACE_HEAD).digits(random, 15).put(TRACE_SUB).digits(random, 14);
+		block.put(TRACE_ITEM).digits(random, 10).put(TRACE_SKU).digits(random, 8).put((byte) ' ').put((byte) '\n');
+
+		boolean causedBy = markers.length == 0 || random.nextInt(5) == 0;
+		block.put(EXCEPTION).put(causedBy ? UNKNOWN_ERROR : pick(markers, random)).put((byte) '\n');
+		int frames = 1 + random.nextInt(depth);
+		for (int i = 0; i < frames; i++) {
+			block.put(pick(FRAMES, random)).number(1 + random.nextInt(900)).put(FRAME_END);
+		}
+		block.lines += 2 + frames;
+		if (causedBy && markers.length > 0) {
+			block.put(CAUSED_BY).put(pick(markers, random)).put((byte) '\n');
+			block.lines++;
+		}
+	}
+
+	void text(Block block, int time, Random random) {
+		block.put(DATE).time(time).put(INFO).put(pick(MESSAGES, random)).put(TEXT_ITEM).digits(random, 11);
+		block.put(TEXT_COST).number(random.nextInt(100)).put(MS);
+		block.lines++;
+	}
+
+	private static Block ip(Block block, Random random) {
+		block.put((byte) '1').put((byte) '7').put((byte) '2').put((byte) '.').number(23 + random.nextInt(2));
+		return block.put((byte) '.').number(random.nextInt(256)).put((byte) '.').number(random.nextInt(256));
+	}
+
+	/**
+	 * 룬룬5λ
+	 */
+	private static int millis(Random random) {
+		return random.nextInt(10) == 0 ? 1000 + random.nextInt(19000) : 1 + random.nextInt(50);
+	}
+
+	private static byte[] pick(byte[][] choices, Random random) {
+		return choices[random.nextInt(choices.length)];
+	}
+
+	private static byte[] bytes(boolean b) {
+		return b ? TRUE : FALSE;
+	}
+
+	static byte[] bytes(String text) {
+		try {
+			return text.getBytes(CHARSET);
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	static byte[][] bytes(String... texts) {
+		byte[][] bytes = new byte[texts.length][];
+		for (int i = 0; i < texts.length; i++) {
+			bytes[i] = bytes(texts[i]);
+		}
+		return bytes;
+	}
+
+	/**
+	 * һݣֱӰֽƴString
+	 */
+	static class Block {
+		final byte[]	bytes;
+		int				size;
+		int				lines;
+
+		// Ԥۣorderidڿλúʱ䣬ʱȺ
+		final int[]		recentIds	= new int[RECENT_BATCHES];
+		final int[]		recentTimes	= new int[RECENT_BATCHES];
+		int				recent;
+
+		Block(int headroom) {
+			bytes = new byte[BLOCK_SIZE + headroom];
+		}
+
+		Block put(byte[] b) {
+			System.arraycopy(b, 0, bytes, size, b.length);
+			size += b.length;
+			return this;
+		}
+
+		Block put(byte b) {
+			bytes[size++] = b;
+			return this;
+		}
+
+		/**
+		 * һԤ۵orderid˶
+		 */
+		void remember(int id, int time) {
+			if (recent == RECENT_BATCHES) {
+				System.arraycopy(recentIds, 1, recentIds, 0, recent - 1);
+				System.arraycopy(recentTimes, 1, recentTimes, 0, recent - 1);
+				recent--;
+			}
+			recentIds[recent] = id;
+			recentTimes[recent] = time;
+			recent++;
+		}
+
+		/**
+		 * ȡһsinceԤۣorderidλãûз-1ȡߵĲĵ
+		 */
+		int take(int since, Random random) {
+			int first = 0;
+			while (first < recent && recentTimes[first] < since) {
+				first++;
+			}
+			if (first == recent) {
+				return -1;
+			}
+			int i = first + random.nextInt(recent - first);
+			int id = recentIds[i];
+			System.arraycopy(recentIds, i + 1, recentIds, i, recent - i - 1);
+			System.arraycopy(recentTimes, i + 1, recentTimes, i, recent - i - 1);
+			recent--;
+			return id;
+		}
+
+		/**
+		 * Ʊд[from, to)ͬһ¼ظֵĶ
+		 */
+		Block copy(int from, int to) {
+			System.arraycopy(bytes, from, bytes, size, to - from);
+			size += to - from;
+			return this;
+		}
+
+		Block number(int v) {
+			if (v >= 10) {
+				number(v / 10);
+			}
+			bytes[size++] = (byte) ('0' + v % 10);
+			return this;
+		}
+
+		/**
+		 * nλλΪ0
+		 */
+		Block digits(Random random, int n) {
+			bytes[size++] = (byte) ('1' + random.nextInt(9));
+			for (int i = 1; i < n; i++) {
+				bytes[size++] = (byte) ('0' + random.nextInt(10));
+			}
+			return this;
+		}
+
+		Block time(int seconds) {
+			twoDigits(seconds / 3600).put((byte) ':');
+			twoDigits(seconds / 60 % 60).put((byte) ':');
+			return twoDigits(seconds % 60);
+		}
+
+		private Block twoDigits(int v) {
+			bytes[size++] = (byte) ('0' + v / 10);
+			bytes[size++] = (byte) ('0' + v % 10);
+			return this;
+		}
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length == 0) {
+			System.err.println("Usage: LogGenerator <dir> [size per file, e.g. 512m, 10g] [files] [threads]");
+			return;
+		}
+		File dir = new File(args[0]);
+		long size = args.length > 1 ? FileSplitter.parseSize(args[1]) : FileSplitter.parseSize("1g");
+		int files = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+		int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+		if (!dir.exists() && !dir.mkdirs()) {
+			throw new IOException("Cannot create " + dir);
+		}
+
+		LogGenerator generator = fromProperties();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			long begin = System.nanoTime();
+			long total = 0;
+			for (int i = 0; i < files; i++) {
+				File file = new File(dir, files == 1 ? "inventoryplatform.log" : "inventoryplatform.log." + i);
+				total += generator.write(file, i, size, executor, threads * 2);
+				System.out.println(file + ": Done!");
+			}
+			double seconds = (System.nanoTime() - begin) / 1e9;
+
+			StringBuilder summary = new StringBuilder();
+			summary.append(total).append(" bytes, ").append(generator.lines()).append(" lines in ");
+			summary.append(String.format("%.1fs (%.1f MB/s)", seconds, total / seconds / 1024 / 1024));
+			for (int i = 0; i < KINDS.length; i++) {
+				summary.append(i == 0 ? "; " : ", ").append(KINDS[i]).append('=').append(generator.records(i));
+			}
+			System.out.println(summary);
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,368 @@
+package com.shansun.demo.log;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+/**
+ * {@link LogIndexBuilder}õŻʱֱӶλ־Уɨ
+ * <p>
+ * Ŀ¼ļǴˣ
+ * <ul>
+ * <li>files.idxint magic, short version, int ļÿļ UTF ļ, long ,
+ * 1440 x (long ÷ӵһ, long һյ)ûΪ-1</li>
+ * <li>orders.idxint magic, short version, long ٰźĶ¼
+ * (long , long ļ << 40 | )ѯʱֻ֣ʮֽ</li>
+ * </ul>
+ * ־ֻڽ֮׷ӣļǵĶ(תض);ܾѯؽ̰߳ȫġ
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class LogIndex {
+
+	public static final int				MINUTES		= 24 * 60;
+
+	public static final String			FILES		= "files.idx";
+	public static final String			ORDERS		= "orders.idx";
+
+	static final int					MAGIC		= 0x4C494458;				// "LIDX"
+	static final short					VERSION		= 1;
+	static final int					FILE_SHIFT	= 40;
+	static final long					OFFSET_MASK	= (1L << FILE_SHIFT) - 1;
+
+	/** orders.idxһ¼λü¼ */
+	private static final int			HEADER		= 4 + 2 + 8;
+	private static final int			RECORD		= 16;
+
+	private static final String			CHARSET		= "gb2312";
+
+	public interface LineHandler {
+
+		/**
+		 * @param offset ļֽƫ
+		 */
+		void line(String file, long offset, String line);
+	}
+
+	private final File					logDir;
+	private final String[]				names;
+	private final long[][]				starts;
+	private final long[][]				ends;
+	private final FileChannel[]			logs;
+
+	private final RandomAccessFile		orders;
+	private final long					count;
+	private final ByteBuffer			record		= ByteBuffer.allocate(RECORD);
+
+	public LogIndex(File logDir, File indexDir) throws IOException {
+		this.logDir = logDir;
+
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(new File(indexDir, FILES)), 64 * 1024));
+		try {
+			checkHeader(in.readInt(), in.readShort(), FILES);
+			int n = in.readInt();
+			names = new String[n];
+			starts = new long[n][MINUTES];
+			ends = new long[n][MINUTES];
+			logs = new FileChannel[n];
+			for (int i = 0; i < n; i++) {
+				names[i] = in.readUTF();
+				long size = in.readLong();
+				long actual = new File(logDir, names[i]).length();
+				if (actual < size) {
+					throw new IOException(names[i] + " is shorter than indexed (" + actual + " < " + size + "), rebuild the index");
+				}
+				for (int m = 0; m < MINUTES; m++) {
+					starts[i][m] = in.readLong();
+					ends[i][m] = in.readLong();
+				}
+			}
+		} finally {
+			in.close();
+		}
+
+		orders = new RandomAccessFile(new File(indexDir, ORDERS), "r");
+		boolean ok = false;
+		try {
+			checkHeader(orders.readInt(), orders.readShort(), ORDERS);
+			count = orders.readLong();
+			if (HEADER + count * RECORD != orders.length()) {
+				throw new IOException(ORDERS + " is truncated");
+			}
+			ok = true;
+		} finally {
+			if (!ok) {
+				orders.close();
+			}
+		}
+	}
+
+	private static void checkHeader(int magic, short version, String name) throws IOException {
+		if (magic != MAGIC) {
+			throw new IOException(name + " is not a log index");
+		}
+		if (version != VERSION) {
+			throw new IOException(name + ": unsupported version " + version);
+		}
+	}
+
+	/**
+	 * (Ӷ)ֹУļλ˳
+	 *
+	 * @return 
+	 */
+	public int find(long id, LineHandler handler) throws IOException {
+		// ҵһ>=idļ¼
+		long low = 0, high = count;
+		while (low < high) {
+			long mid = (low + high) >>> 1;
+			if (key(mid) < id) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+
+		List<Long> locations = Lists.newArrayList();
+		for (long i = low; i < count && key(i) == id; i++) {
+			locations.add(record.getLong(8));
+		}
+		Collections.sort(locations);
+
+		for (long location : locations) {
+			int file = (int) (location >>> FILE_SHIFT);
+			long offset = location & OFFSET_MASK;
+			handler.line(names[file], offset, readLine(file, offset));
+		}
+		return locations.size();
+	}
+
+	private long key(long i) throws IOException {
+		record.clear();
+		FileChannel channel = orders.getChannel();
+		long position = HEADER + i * RECORD;
+		while (record.hasRemaining()) {
+			if (channel.read(record, position + record.position()) < 0) {
+				throw new IOException(ORDERS + " is truncated");
+			}
+		}
+		return record.getLong(0);
+	}
+
+	private String readLine(int file, long offset) throws IOException {
+		FileChannel channel = log(file);
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+		while (true) {
+			int n = channel.read(buffer, offset + buffer.position());
+			for (int i = 0; i < buffer.position(); i++) {
+				if (buffer.get(i) == '\n') {
+					return decode(buffer.array(), i);
+				}
+			}
+			if (n < 0) {
+				return decode(buffer.array(), buffer.position());
+			}
+			if (!buffer.hasRemaining()) {
+				ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+				buffer.flip();
+				larger.put(buffer);
+				buffer = larger;
+			}
+		}
+	}
+
+	/**
+	 * ʱڵУĿ(쳣ջ)toСfromʱ
+	 *
+	 * @param from ʼ(ڼ)
+	 * @param to ӣ
+	 * @return 
+	 */
+	public int between(int from, int to, LineHandler handler) throws IOException {
+		boolean[] window = new boolean[MINUTES];
+		for (int m = from;; m = (m + 1) % MINUTES) {
+			window[m] = true;
+			if (m == to) {
+				break;
+			}
+		}
+
+		int lines = 0;
+		for (int file = 0; file < names.length; file++) {
+			for (long[] range : ranges(file, window)) {
+				lines += scan(file, range[0], range[1], window, handler);
+			}
+		}
+		return lines;
+	}
+
+	/**
+	 * ڸӵķΧ򲢰صĺϲ
+	 */
+	private List<long[]> ranges(int file, boolean[] window) {
+		List<long[]> ranges = Lists.newArrayList();
+		for (int m = 0; m < MINUTES; m++) {
+			if (window[m] && starts[file][m] >= 0) {
+				ranges.add(new long[] { starts[file][m], ends[file][m] });
+			}
+		}
+		Collections.sort(ranges, new Comparator<long[]>() {
+
+			@Override
+			public int compare(long[] a, long[] b) {
+				return a[0] < b[0] ? -1 : a[0] == b[0] ? 0 : 1;
+			}
+		});
+
+		List<long[]> merged = Lists.newArrayList();
+		for (long[] range : ranges) {
+			long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+			if (last != null && range[0] <= last[1] + 1) {
+				last[1] = Math.max(last[1], range[1]);
+			} else {
+				merged.add(range);
+			}
+		}
+		return merged;
+	}
+
+	/**
+	 * startжend֮ĵһʱУ־ϸʱŵģÿлҪжϷ
+	 */
+	private int scan(int file, long start, long end, boolean[] window, LineHandler handler) throws IOException {
+		FileChannel channel = log(file);
+		channel.position(start);
+		InputStream in = new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024);
+
+		int lines = 0;
+		boolean matched = false;
+		byte[] line = new byte[256];
+		long offset = start;
+		while (true) {
+			int n = 0, b;
+			while ((b = in.read()) >= 0 && b != '\n') {
+				if (n == line.length) {
+					line = Arrays.copyOf(line, n * 2);
+				}
+				line[n++] = (byte) b;
+			}
+			if (b < 0 && n == 0) {
+				break;
+			}
+
+			int minute = minute(ByteBuffer.wrap(line, 0, n), 0, n);
+			if (minute >= 0) {
+				if (offset >= end) {
+					break;
+				}
+				matched = window[minute];
+			}
+			// ûʱһУһ
+			if (matched) {
+				handler.line(names[file], offset, decode(line, n));
+				lines++;
+			}
+			offset += n + (b < 0 ? 0 : 1);
+		}
+		return lines;
+	}
+
+	private FileChannel log(int file) throws IOException {
+		if (logs[file] == null) {
+			logs[file] = new RandomAccessFile(new File(logDir, names[file]), "r").getChannel();
+		}
+		return logs[file];
+	}
+
+	private static String decode(byte[] bytes, int length) throws IOException {
+		if (length > 0 && bytes[length - 1] == '\r') {
+			length--;
+		}
+		return new String(bytes, 0, length, CHARSET);
+	}
+
+	/**
+	 * "yyyy-MM-dd H:m:"ĵʽ(С쳣ջ)-1
+	 */
+	static int minute(ByteBuffer buffer, int from, int to) {
+		int i = from + 4;
+		if (to - from < 14 || buffer.get(i) != '-' || buffer.get(i + 3) != '-') {
+			return -1;
+		}
+		for (int k = from; k < i; k++) {
+			if (!digit(buffer.get(k))) {
+				return -1;
+			}
+		}
+		// 12λ
+		i += 4;
+		if (!digit(buffer.get(i++))) {
+			return -1;
+		}
+		if (digit(buffer.get(i))) {
+			i++;
+		}
+		if (buffer.get(i++) != ' ') {
+			return -1;
+		}
+
+		int hour = 0, minute = 0, n = 0;
+		for (; i < to && digit(buffer.get(i)) && n < 2; i++, n++) {
+			hour = hour * 10 + buffer.get(i) - '0';
+		}
+		if (n == 0 || i >= to || buffer.get(i++) != ':') {
+			return -1;
+		}
+		for (n = 0; i < to && digit(buffer.get(i)) && n < 2; i++, n++) {
+			minute = minute * 10 + buffer.get(i) - '0';
+		}
+		if (n == 0 || i >= to || buffer.get(i) != ':' || hour > 23 || minute > 59) {
+			return -1;
+		}
+		return hour * 60 + minute;
+	}
+
+	private static boolean digit(byte b) {
+		return b >= '0' && b <= '9';
+	}
+
+	/**
+	 * "HH:mm"תɵ
+	 */
+	public static int parseMinute(String text) {
+		int colon = text.indexOf(':');
+		if (colon < 0) {
+			throw new IllegalArgumentException("Expected HH:mm: " + text);
+		}
+		int hour = Integer.parseInt(text.substring(0, colon).trim());
+		int minute = Integer.parseInt(text.substring(colon + 1).trim());
+		if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+			throw new IllegalArgumentException("Expected HH:mm: " + text);
+		}
+		return hour * 60 + minute;
+	}
+
+	public void close() throws IOException {
+		orders.close();
+		for (FileChannel channel : logs) {
+			if (channel != null) {
+				channel.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,466 @@
+package com.shansun.demo.log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.google.common.collect.Lists;
+import com.shansun.demo.tool.LineChunks;
+import com.shansun.demo.tool.LineRangeScheduler;
+
+/**
+ * ɨһ־{@link LogIndex}ļÿӵڵֽڷΧԼ -> λ
+ * <p>
+ * ļжκLineRangeSchedulerɨ裬ÿڱܺٺϲ׵"yyyy-MM-dd H:m"ӣ
+ * "orderid=""order_sub_ids=""=""Ӷ="Ⱥֶ(Ӷ)
+ * ͬһظֻһΡ
+ * <p>
+ * (, λ)ڴrunSizeԣźдһʱΣѸζ·鲢orders.idx
+ * ڴռ־С޹أһζûдʱֱڴ
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class LogIndexBuilder {
+
+	private static final long		MIN_CHUNK_SIZE	= 4 * 1024 * 1024;
+
+	/** ĬÿεĶÿ16ֽڣ64MB */
+	public static final int			RUN_SIZE		= 4 * 1024 * 1024;
+
+	/** ǰļgb2312룬'='β */
+	static final byte[][]			ID_KEYS			= keys("orderid=", "order_sub_ids=", "=", "Ӷ=");
+
+	private final List<File>		files;
+
+	/** ļÿӵһеһеյ㣬ûΪ-1 */
+	private final long[][]			starts;
+	private final long[][]			ends;
+
+	// ڴĶźλ(ļ << 40 | ƫ)
+	private final int				runSize;
+	private long[]					ids				= new long[1024];
+	private long[]					locations		= new long[1024];
+	private int						buffered		= 0;
+	/** ܶдɶε */
+	private long					count			= 0;
+
+	private File					runDir;
+	private final List<File>		runs			= Lists.newArrayList();
+
+	public LogIndexBuilder(List<File> files) {
+		this(files, RUN_SIZE);
+	}
+
+	/**
+	 * @param runSize ڴܶٶ(, λ)
+	 */
+	public LogIndexBuilder(List<File> files, int runSize) {
+		if (runSize < 1) {
+			throw new IllegalArgumentException("runSize must be positive: " + runSize);
+		}
+		this.files = files;
+		this.runSize = runSize;
+		this.starts = new long[files.size()][LogIndex.MINUTES];
+		this.ends = new long[files.size()][LogIndex.MINUTES];
+		for (int i = 0; i < files.size(); i++) {
+			Arrays.fill(starts[i], -1);
+			Arrays.fill(ends[i], -1);
+		}
+	}
+
+	/**
+	 * ɨļдdir
+	 */
+	public void build(File dir, int threads) throws IOException, InterruptedException {
+		if (!dir.exists() && !dir.mkdirs()) {
+			throw new IOException("Cannot create " + dir);
+		}
+		runDir = dir;
+
+		final Map<FileChannel, Integer> numbers = new IdentityHashMap<FileChannel, Integer>();
+		LineRangeScheduler scheduler = new LineRangeScheduler(threads, MIN_CHUNK_SIZE);
+		try {
+			for (int i = 0; i < files.size(); i++) {
+				FileChannel channel = new RandomAccessFile(files.get(i), "r").getChannel();
+				numbers.put(channel, i);
+				scheduler.add(channel, 0, channel.size());
+			}
+
+			scheduler.run(new LineRangeScheduler.Handler() {
+
+				@Override
+				public void handle(FileChannel channel, LineChunks.Chunk chunk) throws Exception {
+					ChunkScanner scanner = new ChunkScanner(chunk.start);
+					ByteLines.forEachLine(chunk.map(channel), scanner);
+					merge(numbers.get(channel), scanner);
+				}
+			});
+		} catch (IOException e) {
+			deleteRuns();
+			throw e;
+		} catch (InterruptedException e) {
+			deleteRuns();
+			throw e;
+		} finally {
+			scheduler.shutdown();
+			for (FileChannel channel : numbers.keySet()) {
+				channel.close();
+			}
+		}
+
+		writeFiles(new File(dir, LogIndex.FILES));
+		try {
+			if (runs.isEmpty()) {
+				sort(ids, locations, 0, buffered);
+				writeOrders(new File(dir, LogIndex.ORDERS));
+			} else {
+				flushRun();
+				mergeRuns(new File(dir, LogIndex.ORDERS));
+			}
+		} finally {
+			deleteRuns();
+		}
+	}
+
+	public long orders() {
+		return count;
+	}
+
+	synchronized void merge(int file, ChunkScanner scanner) throws IOException {
+		for (int m = 0; m < LogIndex.MINUTES; m++) {
+			if (scanner.starts[m] < 0) {
+				continue;
+			}
+			if (starts[file][m] < 0 || scanner.starts[m] < starts[file][m]) {
+				starts[file][m] = scanner.starts[m];
+			}
+			if (scanner.ends[m] > ends[file][m]) {
+				ends[file][m] = scanner.ends[m];
+			}
+		}
+
+		long base = (long) file << LogIndex.FILE_SHIFT;
+		for (int i = 0; i < scanner.count; i++) {
+			if (buffered == ids.length) {
+				if (buffered == runSize) {
+					flushRun();
+				} else {
+					int capacity = (int) Math.min(runSize, ids.length * 2L);
+					ids = Arrays.copyOf(ids, capacity);
+					locations = Arrays.copyOf(locations, capacity);
+				}
+			}
+			ids[buffered] = scanner.ids[i];
+			locations[buffered] = base | scanner.offsets[i];
+			buffered++;
+			count++;
+		}
+	}
+
+	/**
+	 * ڴĶźдһ
+	 */
+	private void flushRun() throws IOException {
+		sort(ids, locations, 0, buffered);
+		File run = new File(runDir, LogIndex.ORDERS + ".run-" + runs.size());
+		runs.add(run);
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run), 256 * 1024));
+		try {
+			for (int i = 0; i < buffered; i++) {
+				out.writeLong(ids[i]);
+				out.writeLong(locations[i]);
+			}
+		} finally {
+			out.close();
+		}
+		buffered = 0;
+	}
+
+	/**
+	 * ζ·鲢ͬİλ
+	 */
+	void mergeRuns(File target) throws IOException {
+		PriorityQueue<RunReader> heap = new PriorityQueue<RunReader>(runs.size());
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(target), 256 * 1024));
+		try {
+			for (File run : runs) {
+				RunReader reader = new RunReader(run);
+				if (reader.next()) {
+					heap.add(reader);
+				} else {
+					reader.close();
+				}
+			}
+
+			out.writeInt(LogIndex.MAGIC);
+			out.writeShort(LogIndex.VERSION);
+			out.writeLong(count);
+			while (!heap.isEmpty()) {
+				RunReader reader = heap.poll();
+				out.writeLong(reader.id);
+				out.writeLong(reader.location);
+				if (reader.next()) {
+					heap.add(reader);
+				} else {
+					reader.close();
+				}
+			}
+		} finally {
+			out.close();
+			for (RunReader reader : heap) {
+				reader.close();
+			}
+		}
+	}
+
+	private void deleteRuns() {
+		for (File run : runs) {
+			run.delete();
+		}
+		runs.clear();
+	}
+
+	/**
+	 * ˳һΣǰ(id, location)
+	 */
+	static class RunReader implements Comparable<RunReader> {
+		private final DataInputStream	in;
+		private long					remaining;
+		long							id;
+		long							location;
+
+		RunReader(File run) throws IOException {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(run), 64 * 1024));
+			remaining = run.length() / 16;
+		}
+
+		boolean next() throws IOException {
+			if (remaining == 0) {
+				return false;
+			}
+			remaining--;
+			id = in.readLong();
+			location = in.readLong();
+			return true;
+		}
+
+		void close() throws IOException {
+			in.close();
+		}
+
+		@Override
+		public int compareTo(RunReader o) {
+			if (id != o.id) {
+				return id < o.id ? -1 : 1;
+			}
+			return location < o.location ? -1 : (location == o.location ? 0 : 1);
+		}
+	}
+
+	void writeFiles(File target) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(target)));
+		try {
+			out.writeInt(LogIndex.MAGIC);
+			out.writeShort(LogIndex.VERSION);
+			out.writeInt(files.size());
+			for (int i = 0; i < files.size(); i++) {
+				File file = files.get(i);
+				out.writeUTF(file.getName());
+				out.writeLong(file.length());
+				for (int m = 0; m < LogIndex.MINUTES; m++) {
+					out.writeLong(starts[i][m]);
+					out.writeLong(ends[i][m]);
+				}
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	void writeOrders(File target) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(target), 256 * 1024));
+		try {
+			out.writeInt(LogIndex.MAGIC);
+			out.writeShort(LogIndex.VERSION);
+			out.writeLong(count);
+			for (int i = 0; i < buffered; i++) {
+				out.writeLong(ids[i]);
+				out.writeLong(locations[i]);
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * һεıؽֻһ߳д
+	 */
+	static class ChunkScanner implements ByteLines.Handler {
+		final long	base;
+		final long[]	starts	= new long[LogIndex.MINUTES];
+		final long[]	ends	= new long[LogIndex.MINUTES];
+
+		long[]		ids		= new long[256];
+		long[]		offsets	= new long[256];
+		int			count	= 0;
+
+		ChunkScanner(long base) {
+			this.base = base;
+			Arrays.fill(starts, -1);
+			Arrays.fill(ends, -1);
+		}
+
+		@Override
+		public void format(ByteBuffer buffer, int from, int to) {
+			long offset = base + from;
+			int minute = LogIndex.minute(buffer, from, to);
+			if (minute >= 0) {
+				if (starts[minute] < 0) {
+					starts[minute] = offset;
+				}
+				ends[minute] = base + to;
+			}
+
+			int first = count;
+			for (int i = from; i < to; i++) {
+				if (buffer.get(i) != '=') {
+					continue;
+				}
+				for (byte[] key : ID_KEYS) {
+					if (endsWith(buffer, from, i + 1, key)) {
+						long id = digits(buffer, i + 1, to);
+						if (id >= 0 && !contains(first, id)) {
+							add(id, offset);
+						}
+						break;
+					}
+				}
+			}
+		}
+
+		boolean contains(int from, long id) {
+			for (int i = from; i < count; i++) {
+				if (ids[i] == id) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		void add(long id, long offset) {
+			if (count == ids.length) {
+				ids = Arrays.copyOf(ids, count * 2);
+				offsets = Arrays.copyOf(offsets, count * 2);
+			}
+			ids[count] = id;
+			offsets[count] = offset;
+			count++;
+		}
+	}
+
+	static boolean endsWith(ByteBuffer buffer, int from, int end, byte[] key) {
+		if (end - from < key.length) {
+			return false;
+		}
+		for (int k = key.length - 1, i = end - 1; k >= 0; k--, i--) {
+			if (buffer.get(i) != key[k]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * i֣ûֻ򳬹18λ-1
+	 */
+	static long digits(ByteBuffer buffer, int i, int to) {
+		long value = 0;
+		int n = 0;
+		for (; i < to; i++, n++) {
+			int d = buffer.get(i) - '0';
+			if (d < 0 || d > 9) {
+				break;
+			}
+			if (n == 18) {
+				return -1;
+			}
+			value = value * 10 + d;
+		}
+		return n == 0 ? -1 : value;
+	}
+
+	/**
+	 * keysvaluesŶ
+	 */
+	static void sort(long[] keys, long[] values, int from, int to) {
+		while (to - from > 16) {
+			long pivot = median(keys[from], keys[(from + to) >>> 1], keys[to - 1]);
+			int i = from, j = to - 1;
+			while (i <= j) {
+				while (keys[i] < pivot) {
+					i++;
+				}
+				while (keys[j] > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					swap(keys, values, i++, j--);
+				}
+			}
+			// Сһݹ飬һѭջȲlog(n)
+			if (j - from < to - i) {
+				sort(keys, values, from, j + 1);
+				from = i;
+			} else {
+				sort(keys, values, i, to);
+				to = j + 1;
+			}
+		}
+		for (int i = from + 1; i < to; i++) {
+			for (int j = i; j > from && keys[j - 1] > keys[j]; j--) {
+				swap(keys, values, j, j - 1);
+			}
+		}
+	}
+
+	private static long median(long a, long b, long c) {
+		return a < b ? (b < c ? b : a < c ? c : a) : (a < c ? a : b < c ? c : b);
+	}
+
+	private static void swap(long[] keys, long[] values, int i, int j) {
+		long k = keys[i];
+		keys[i] = keys[j];
+		keys[j] = k;
+		long v = values[i];
+		values[i] = values[j];
+		values[j] = v;
+	}
+
+	private static byte[][] keys(String... keys) {
+		byte[][] bytes = new byte[keys.length][];
+		try {
+			for (int i = 0; i < keys.length; i++) {
+				bytes[i] = keys[i].getBytes("gb2312");
+			}
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+		return bytes;
+	}
+}
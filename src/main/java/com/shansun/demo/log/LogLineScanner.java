@@ -0,0 +1,136 @@
+package com.shansun.demo.log;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Ԥ/־ĿɨΪѽ
+ * <p>
+ * ÷MatcherͬbatchWithhold(line)ȷtrue{@link #group(int)}ȡ顣
+ * ̰߳ȫÿ̸߳һʵ
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class LogLineScanner extends AbstractLineScanner {
+
+	private String			line;
+
+	/** ΪfalseʱȫڶԱ֤ */
+	private final boolean	fastPath;
+
+	public LogLineScanner() {
+		this(true);
+	}
+
+	public LogLineScanner(boolean fastPath) {
+		this.fastPath = fastPath;
+	}
+
+	/**
+	 * Ӧ{@link #BATCH_WITHHOLD_REGEX}
+	 */
+	public boolean batchWithhold(String line) {
+		this.line = line;
+		return resolve(fastPath ? scanBatchWithhold() : FALLBACK, BATCH_WITHHOLD);
+	}
+
+	/**
+	 * Ӧ{@link #SINGLE_WITHHOLD_REGEX}
+	 */
+	public boolean singleWithhold(String line) {
+		this.line = line;
+		return resolve(fastPath ? scanSingleWithhold() : FALLBACK, SINGLE_WITHHOLD);
+	}
+
+	/**
+	 * Ӧ{@link #REDUCE_REGEX}
+	 */
+	public boolean reduce(String line) {
+		this.line = line;
+		return resolve(fastPath ? scanReduce() : FALLBACK, REDUCE);
+	}
+
+	/**
+	 * Ӧ{@link #WITHHOLD_REGEX}
+	 */
+	public boolean withhold(String line) {
+		this.line = line;
+		return resolve(fastPath ? scanWithhold() : FALLBACK, WITHHOLD);
+	}
+
+	@Override
+	public String group(int group) {
+		return start[group] < 0 ? null : line.substring(start[group], end[group]);
+	}
+
+	public int start(int group) {
+		return start[group];
+	}
+
+	public int end(int group) {
+		return end[group];
+	}
+
+	private boolean resolve(int result, Pattern pattern) {
+		if (result == MATCH) {
+			return true;
+		}
+		if (result == NO_MATCH) {
+			return false;
+		}
+
+		fallbacks++;
+		Matcher matcher = pattern.matcher(line);
+		if (!matcher.find()) {
+			return false;
+		}
+		for (int g = 1; g <= matcher.groupCount(); g++) {
+			start[g] = matcher.start(g);
+			end[g] = matcher.end(g);
+		}
+		return true;
+	}
+
+	@Override
+	int length() {
+		return line.length();
+	}
+
+	@Override
+	String text(int from, int to) {
+		return line.substring(from, to);
+	}
+
+	@Override
+	int charAt(int index) {
+		return line.charAt(index);
+	}
+
+	@Override
+	int indexOf(String str, int from) {
+		return line.indexOf(str, from);
+	}
+
+	@Override
+	int lastIndexOf(String str, int from) {
+		return line.lastIndexOf(str, from);
+	}
+
+	@Override
+	boolean startsWith(String str, int at) {
+		return line.startsWith(str, at);
+	}
+
+	@Override
+	boolean unsafe() {
+		for (int i = 0, len = line.length(); i < len; i++) {
+			char c = line.charAt(i);
+			if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,206 @@
+package com.shansun.demo.log;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.alibaba.fastjson.JSON;
+
+/**
+ * ˮ߸׶εļͺʱ̰߳ȫ
+ * <p>
+ * ȡ -> ɨ/ƥ ->  ->  -> дϸÿθмʱۼ(߳ʱǸ֮߳)
+ * <ul>
+ * <li>readʽļʱ䣬mmapʽûеĶȱҳparse</li>
+ * <li>parse̴߳ӿʼʱ䣬ӵȴʽȡʱread</li>
+ * <li>enqueueWaitʱ̵߳д̵߳ʱ䣬˵дļƿ</li>
+ * <li>dequeueWaitд̵߳εʱ䣬˵ƿ</li>
+ * <li>writeд̱߳롢дļʱ</li>
+ * </ul>
+ * ƥɨõֱ(ԤۡԤۡ桢Ԥۡʧܱ)д¼޹ء
+ * ɨ衢ƥɸ߳һٱÿжͬһ
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class PipelineMetrics {
+
+	// ƥlinesMatched±
+	public static final int			BATCH_WITHHOLD		= 0;
+	public static final int			SINGLE_WITHHOLD		= 1;
+	public static final int			REDUCE				= 2;
+	public static final int			WITHHOLD			= 3;
+	public static final int			REDUCE_HEADER		= 4;
+	public static final int			PATTERNS			= 5;
+
+	private static final String[]	PATTERN_NAMES		= { "batch", "single", "reduce", "withhold", "reduce-header" };
+
+	private final long				started				= System.nanoTime();
+
+	private final AtomicLong		bytesRead			= new AtomicLong();
+	private final AtomicLong		linesScanned		= new AtomicLong();
+	private final AtomicLongArray	linesMatched		= new AtomicLongArray(PATTERNS);
+	private final AtomicLong		tablesEnqueued		= new AtomicLong();
+	private final AtomicLong		entriesEnqueued		= new AtomicLong();
+	private final AtomicLong		tablesDequeued		= new AtomicLong();
+	private final AtomicLong		entriesDequeued		= new AtomicLong();
+	private final AtomicLong		bytesWritten		= new AtomicLong();
+
+	private final AtomicLong		readNanos			= new AtomicLong();
+	private final AtomicLong		parseNanos			= new AtomicLong();
+	private final AtomicLong		enqueueWaitNanos	= new AtomicLong();
+	private final AtomicLong		dequeueWaitNanos	= new AtomicLong();
+	private final AtomicLong		writeNanos			= new AtomicLong();
+
+	private final AtomicLong		maxQueueDepth		= new AtomicLong();
+
+	// ϴαʱֵֻб߳
+	private long					lastReport			= started;
+	private long					lastLines;
+	private long					lastBytes;
+
+	public void read(long bytes, long nanos) {
+		bytesRead.addAndGet(bytes);
+		readNanos.addAndGet(nanos);
+	}
+
+	public void scanned(long lines) {
+		linesScanned.addAndGet(lines);
+	}
+
+	/**
+	 * µƥ
+	 */
+	public void matched(long[] counts) {
+		for (int i = 0; i < PATTERNS; i++) {
+			if (counts[i] > 0) {
+				linesMatched.addAndGet(i, counts[i]);
+				counts[i] = 0;
+			}
+		}
+	}
+
+	/**
+	 * һԪ
+	 *
+	 * @param nanos ʱӵȴ
+	 * @param waitNanos ӵȴ
+	 */
+	public void parsed(long nanos, long waitNanos) {
+		parseNanos.addAndGet(nanos);
+		enqueueWaitNanos.addAndGet(waitNanos);
+	}
+
+	/**
+	 * һǰ(ϱд̻߳)
+	 */
+	public void enqueued(EntryTable table) {
+		tablesEnqueued.incrementAndGet();
+		entriesEnqueued.addAndGet(table.size());
+	}
+
+	public void dequeued(int entries) {
+		tablesDequeued.incrementAndGet();
+		entriesDequeued.addAndGet(entries);
+	}
+
+	public void dequeueWait(long nanos) {
+		dequeueWaitNanos.addAndGet(nanos);
+	}
+
+	public void written(long bytes, long nanos) {
+		bytesWritten.addAndGet(bytes);
+		writeNanos.addAndGet(nanos);
+	}
+
+	public void queueDepth(int depth) {
+		long max;
+		while (depth > (max = maxQueueDepth.get()) && !maxQueueDepth.compareAndSet(max, depth)) {
+		}
+	}
+
+	/**
+	 * һֽͺʱǵread
+	 */
+	public InputStream count(InputStream in) {
+		return new FilterInputStream(in) {
+
+			@Override
+			public int read() throws IOException {
+				long begin = System.nanoTime();
+				int b = super.read();
+				PipelineMetrics.this.read(b < 0 ? 0 : 1, System.nanoTime() - begin);
+				return b;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				long begin = System.nanoTime();
+				int n = super.read(b, off, len);
+				PipelineMetrics.this.read(n < 0 ? 0 : n, System.nanoTime() - begin);
+				return n;
+			}
+		};
+	}
+
+	/**
+	 * һнȣۼ;ϴαʣɱ̶߳ڵ
+	 */
+	public synchronized String progress(int queueDepth, int queueCapacity) {
+		queueDepth(queueDepth);
+
+		long now = System.nanoTime();
+		long lines = linesScanned.get();
+		long bytes = bytesRead.get();
+		double seconds = Math.max(1, now - lastReport) / 1e9;
+		String line = String.format("progress: %.1fs lines=%d (%.0f lines/s) read=%.1fMB (%.1f MB/s) entries=%d/%d queue=%d/%d written=%.1fMB",
+				(now - started) / 1e9, lines, (lines - lastLines) / seconds, bytes / 1048576.0, (bytes - lastBytes) / 1048576.0 / seconds,
+				entriesDequeued.get(), entriesEnqueued.get(), queueDepth, queueCapacity, bytesWritten.get() / 1048576.0);
+
+		lastReport = now;
+		lastLines = lines;
+		lastBytes = bytes;
+		return line;
+	}
+
+	public Map<String, Object> toMap() {
+		double seconds = (System.nanoTime() - started) / 1e9;
+
+		Map<String, Object> matched = new LinkedHashMap<String, Object>();
+		for (int i = 0; i < PATTERNS; i++) {
+			matched.put(PATTERN_NAMES[i], linesMatched.get(i));
+		}
+
+		Map<String, Object> millis = new LinkedHashMap<String, Object>();
+		millis.put("read", readNanos.get() / 1000000);
+		millis.put("parse", parseNanos.get() / 1000000);
+		millis.put("enqueueWait", enqueueWaitNanos.get() / 1000000);
+		millis.put("dequeueWait", dequeueWaitNanos.get() / 1000000);
+		millis.put("write", writeNanos.get() / 1000000);
+
+		Map<String, Object> map = new LinkedHashMap<String, Object>();
+		map.put("elapsedMillis", Math.round(seconds * 1000));
+		map.put("bytesRead", bytesRead.get());
+		map.put("linesScanned", linesScanned.get());
+		map.put("linesMatched", matched);
+		map.put("tablesEnqueued", tablesEnqueued.get());
+		map.put("entriesEnqueued", entriesEnqueued.get());
+		map.put("tablesDequeued", tablesDequeued.get());
+		map.put("entriesDequeued", entriesDequeued.get());
+		map.put("maxQueueDepth", maxQueueDepth.get());
+		map.put("bytesWritten", bytesWritten.get());
+		map.put("linesPerSecond", Math.round(linesScanned.get() / seconds));
+		map.put("mbPerSecond", Math.round(bytesRead.get() / 1048576.0 / seconds * 10) / 10.0);
+		map.put("stageMillis", millis);
+		return map;
+	}
+
+	public String toJson() {
+		return JSON.toJSONString(toMap());
+	}
+}
@@ -0,0 +1,100 @@
+package com.shansun.demo.log;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import com.shansun.demo.tool.AhoCorasick;
+
+/**
+ * ʧԭࣺĳǾ͹ΪӦԭͬʱֶʱ˳ȡǰ
+ * <p>
+ * Ǳļ(gb2312)ÿ"=ԭ"#ͷΪע͡Ĭ϶classpathµ
+ * {@link #DEFAULT_RESOURCE}ֻ̰߳ȫ
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class ReasonClassifier {
+
+	public static final String	DEFAULT_RESOURCE	= "/reduce-reasons.conf";
+
+	private final List<String>	markers;
+	private final List<String>	reasons;
+	private final AhoCorasick	matcher;
+
+	public ReasonClassifier(List<String> markers, List<String> reasons) {
+		if (markers.size() != reasons.size()) {
+			throw new IllegalArgumentException("markers and reasons differ in size");
+		}
+		this.markers = Collections.unmodifiableList(Lists.newArrayList(markers));
+		this.reasons = Collections.unmodifiableList(Lists.newArrayList(reasons));
+		this.matcher = new AhoCorasick(this.markers);
+	}
+
+	/**
+	 * ļpathΪnullʱclasspathµĬ
+	 */
+	public static ReasonClassifier load(String path) throws IOException {
+		InputStream in;
+		if (path == null) {
+			in = ReasonClassifier.class.getResourceAsStream(DEFAULT_RESOURCE);
+			if (in == null) {
+				throw new IOException(DEFAULT_RESOURCE + " not found in classpath");
+			}
+		} else {
+			in = new FileInputStream(path);
+		}
+		try {
+			return load(new InputStreamReader(in, "gb2312"));
+		} finally {
+			in.close();
+		}
+	}
+
+	public static ReasonClassifier load(Reader reader) throws IOException {
+		List<String> markers = Lists.newArrayList();
+		List<String> reasons = Lists.newArrayList();
+
+		BufferedReader lines = new BufferedReader(reader);
+		String line;
+		int no = 0;
+		while ((line = lines.readLine()) != null) {
+			no++;
+			line = line.trim();
+			if (line.length() == 0 || line.startsWith("#")) {
+				continue;
+			}
+			int eq = line.indexOf('=');
+			if (eq <= 0 || eq == line.length() - 1) {
+				throw new IOException("Bad reason mapping at line " + no + ": " + line);
+			}
+			markers.add(line.substring(0, eq).trim());
+			reasons.add(line.substring(eq + 1).trim());
+		}
+		return new ReasonClassifier(markers, reasons);
+	}
+
+	/**
+	 * жӦԭûбǷnull
+	 */
+	public String classify(CharSequence line) {
+		int i = matcher.firstMatch(line);
+		return i < 0 ? null : reasons.get(i);
+	}
+
+	public List<String> markers() {
+		return markers;
+	}
+
+	public List<String> reasons() {
+		return reasons;
+	}
+}
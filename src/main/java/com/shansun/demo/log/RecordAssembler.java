@@ -0,0 +1,159 @@
+package com.shansun.demo.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * к(쳣ջ)ƴһ¼˳ιУҲ԰βд
+ * <p>
+ * δʱÿֻڶڵļ¼Щеһεһ¼
+ * ֱһ¼βûʱֱ¼һл
+ * ļ¼ҲᶪҲظ
+ * <p>
+ * ̰߳ȫÿһʵ(RecordHandler)
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class RecordAssembler implements ByteLines.Handler {
+
+	/** βԤĴڣһзŲʱ */
+	static final int				LOOKAHEAD	= 64 * 1024;
+
+	public interface RecordHandler {
+
+		/** Ƿ¼ */
+		boolean isHeader(ByteBuffer buffer, int from, int to);
+
+		/**
+		 * ¼¼Уڶͬһзtrue{@link #isHeader}֮ãtrueʾ¼Ҫ
+		 */
+		boolean begin(ByteBuffer buffer, int from, int to);
+
+		/** Уtrueʾ¼ */
+		boolean append(ByteBuffer buffer, int from, int to);
+
+		/** ¼һлûи */
+		void end();
+	}
+
+	private final RecordHandler	handler;
+
+	/** δļ¼ */
+	private boolean				open;
+
+	/** {@link #format}˳ιв */
+	private long				lines;
+
+	public RecordAssembler(RecordHandler handler) {
+		this.handler = handler;
+	}
+
+	/**
+	 * ˳ιһУ[from, to)з֮ǰĹб
+	 */
+	@Override
+	public void format(ByteBuffer buffer, int from, int to) {
+		lines++;
+		if (handler.isHeader(buffer, from, to)) {
+			finish();
+			open = true;
+			if (handler.begin(buffer, from, to)) {
+				finish();
+			}
+		} else if (open && handler.append(buffer, from, to)) {
+			finish();
+		}
+	}
+
+	/**
+	 * ι{@link #assemble}ʱֻڵУйһΣظ
+	 */
+	public long lines() {
+		return lines;
+	}
+
+	/**
+	 * ǰ¼˳ιк
+	 */
+	public void finish() {
+		if (open) {
+			open = false;
+			handler.end();
+		}
+	}
+
+	/**
+	 * ļ[start, end)startףʱڸļ¼ѽ
+	 */
+	public void assemble(FileChannel channel, long start, long end) throws IOException {
+		finish();
+		if (end > start) {
+			ByteLines.forEachLine(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start), this);
+		}
+		if (open) {
+			lookahead(channel, end);
+		}
+		finish();
+	}
+
+	/**
+	 * posУֱǰ¼
+	 */
+	private void lookahead(FileChannel channel, long pos) throws IOException {
+		long size = channel.size();
+		long window = LOOKAHEAD;
+		while (open && pos < size) {
+			long len = Math.min(window, size - pos);
+			boolean eof = pos + len == size;
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, pos, len);
+			int limit = (int) len;
+
+			int from = 0;
+			for (int i = 0; i < limit && open; i++) {
+				byte b = buffer.get(i);
+				if (b != '\n' && b != '\r') {
+					continue;
+				}
+				if (b == '\r' && i + 1 == limit && !eof) {
+					// "\r\n"п󴰿ٿ
+					break;
+				}
+				next(buffer, from, i);
+				from = ByteLines.lineEnd(buffer, i, limit);
+				i = from - 1;
+			}
+
+			if (!open) {
+				return;
+			}
+			if (eof) {
+				if (from < limit) {
+					next(buffer, from, limit);
+				}
+				return;
+			}
+			if (from > 0) {
+				pos += from;
+				window = LOOKAHEAD;
+			} else if (window >= Integer.MAX_VALUE / 2) {
+				throw new IOException("Line too long near offset " + pos);
+			} else {
+				window *= 2;
+			}
+		}
+	}
+
+	/**
+	 * һУ˵ǰ¼ѽбһ
+	 */
+	private void next(ByteBuffer buffer, int from, int to) {
+		if (handler.isHeader(buffer, from, to)) {
+			finish();
+		} else if (handler.append(buffer, from, to)) {
+			finish();
+		}
+	}
+}
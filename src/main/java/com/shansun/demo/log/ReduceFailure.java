@@ -0,0 +1,43 @@
+package com.shansun.demo.log;
+
+/**
+ * ʧϢиƷԭҪӱм쳣ջңдEntryTable
+ * <p>
+ * Ҳ֪ԭʱԭ(ȥո񣬶Ż[sp])ƴԭ򡣷̰߳ȫ
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class ReduceFailure {
+
+	/** û֪ԭʱƴԭ */
+	static final int	MAX_RAW_LINES	= 2;
+
+	public String		time;
+	public String		bizId;
+	public String		subId;
+	public String		itemId;
+	public String		skuId;
+	public String		reason			= "";
+	public int			lineCnt			= 0;
+
+	/**
+	 * һ(л)ȷԭ
+	 *
+	 * @return ԭǷѾȷȷ󲻱ٿ
+	 */
+	public boolean match(ReasonClassifier reasons, String line) {
+		String known = reasons.classify(line);
+		if (known != null) {
+			reason = known;
+			return true;
+		}
+		if (lineCnt < MAX_RAW_LINES) {
+			reason += line.replace(",", "[sp]").replace(" ", "");
+			lineCnt++;
+			return false;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,114 @@
+package com.shansun.demo.log;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+
+import com.google.common.collect.Lists;
+
+/**
+ * inventoryplatformĵ־УԼɵĺϳ־Լͻ׼
+ * <p>
+ * ϳʱֻ滻ʱ䡢ʱ(ms)8λϵִ(šƷŵ)ʽ͸еıһ£
+ * ͬһseedɵȫͬ
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class SampleLogs {
+
+	/** ΪԤ(ɹ/ʧ/Buy)ԤۡFinal-reduceʧܱм쳣ջ */
+	public static final String[]	LINES			= new String[] {
+			"2012-11-11 00:20:11 WARN IPM-Trade - P1-WithholdInventory-Batch [172.23.230.184,tc-alipay,3008ms] orderid=194630958498828 [T] ,Not-Enough",
+			"2012-11-11 00:20:07 WARN IPM-Trade - P1-WithholdInventory-Batch [172.24.168.109,tc-alipay,1016ms] orderid=194638954807578 [F->IP_ILLEGAL_INVENTORY_STATUS_Complete] ,Not-Enough",
+			"2012-11-11 00:07:18 WARN IPM-Trade - P1-WithholdInventory-Batch-Buy [172.23.36.66,tmall_buy,10015ms] orderid=194654110384883 [T] ,Not-Enough",
+			"2012-11-11 00:07:13 WARN IPM-Trade - P1-WithholdInventory-Single[172.23.180.55,tf,1ms] suborderid=246481681998782,quantity=1,AfterPayment=true,item=16269325560 [F->IP_QUERY_Inventory_Detail_ERRORF->IpmExceptionѯԤ ӶţӶ=246481681998782,itemId=16269325560] I->IpmExceptionѯԤ ӶţӶ=246481681998782,itemId=16269325560,Not-Enough,null",
+			"2012-11-11 00:08:13 WARN IPM-Trade - Final-reduce~IA [172.23.230.184,tc,1003ms] orderid=128647527737059 user_id=123 order_sub_ids=128647527737059/ [T]",
+			"2012-11-11 00:29:49 WARN IPM - reduceQuantityByBizOrderIdʧIpmException =280409581540213,Ӷ=58384277779030,icItemId=3869338172,skuId=15194247 ",
+			"\tat com.taobao.ipm.ReduceService.reduce(ReduceService.java:211) NoMoreDataSourceException" };
+
+	/** ʧܱ{@link #LINES}е±꣬ŵ */
+	public static final int			REDUCE_FAILURE	= 5;
+
+	private static final int		MIN_ID_DIGITS	= 8;
+	private static final int		MAX_MILLIS		= 20000;
+
+	/**
+	 * countУÿд{@link #LINES}һ滻ʱ
+	 */
+	public static List<String> generate(int count, long seed) {
+		Random random = new Random(seed);
+		List<String> lines = Lists.newArrayListWithCapacity(count);
+		for (int i = 0; i < count; i++) {
+			lines.add(randomize(LINES[random.nextInt(LINES.length)], random));
+		}
+		return lines;
+	}
+
+	/**
+	 * һʱ䡢ʱͳִֵʱͳִλ䣬ʱ1~MAX_MILLIS
+	 * λ(1~5λ\d{1,5}һ)䣬гһͬ
+	 */
+	public static String randomize(String sample, Random random) {
+		StringBuilder line = new StringBuilder(sample.length() + 8);
+		int i = 0;
+		// "yyyy-MM-dd HH:mm:ss"ʱ
+		if (sample.length() >= 19 && sample.charAt(4) == '-' && sample.charAt(13) == ':') {
+			line.append(sample, 0, 11);
+			int seconds = random.nextInt(24 * 3600);
+			twoDigits(line, seconds / 3600).append(':');
+			twoDigits(line, seconds / 60 % 60).append(':');
+			twoDigits(line, seconds % 60);
+			i = 19;
+		}
+
+		while (i < sample.length()) {
+			char c = sample.charAt(i);
+			if (!isDigit(c)) {
+				line.append(c);
+				i++;
+				continue;
+			}
+
+			int end = i;
+			while (end < sample.length() && isDigit(sample.charAt(end))) {
+				end++;
+			}
+			if (sample.startsWith("ms]", end)) {
+				line.append(1 + random.nextInt(MAX_MILLIS));
+			} else if (end - i >= MIN_ID_DIGITS) {
+				line.append((char) ('1' + random.nextInt(9)));
+				for (int k = i + 1; k < end; k++) {
+					line.append((char) ('0' + random.nextInt(10)));
+				}
+			} else {
+				line.append(sample, i, end);
+			}
+			i = end;
+		}
+		return line.toString();
+	}
+
+	/**
+	 * gb2312벢'\n'ָʹϵ־ļһ
+	 */
+	public static ByteBuffer encode(List<String> lines) {
+		StringBuilder text = new StringBuilder();
+		for (String line : lines) {
+			text.append(line).append('\n');
+		}
+		return ByteBuffer.wrap(text.toString().getBytes(ByteLineScanner.GB2312));
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static StringBuilder twoDigits(StringBuilder out, int v) {
+		if (v < 10) {
+			out.append('0');
+		}
+		return out.append(v);
+	}
+}
@@ -0,0 +1,58 @@
+package com.shansun.demo.log;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * ֵַ䣬ȡֵ޵ֶ(롢T/F÷)int
+ * <p>
+ * ̲߳д룻Ųַֻʱȡͨе
+ * ֶͬõţ{@link #get(int)}ҪҲܶӦֵ
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class StringDictionary {
+
+	private final ConcurrentMap<String, Integer>	ids		= new ConcurrentHashMap<String, Integer>();
+
+	private volatile String[]						values	= new String[1024];
+
+	private int										size;
+
+	public int id(String value) {
+		Integer id = ids.get(value);
+		if (id != null) {
+			return id;
+		}
+
+		synchronized (this) {
+			id = ids.get(value);
+			if (id != null) {
+				return id;
+			}
+
+			String[] array = values;
+			if (size == array.length) {
+				String[] grown = new String[array.length * 2];
+				System.arraycopy(array, 0, grown, 0, size);
+				array = grown;
+			}
+			array[size] = value;
+			values = array;
+
+			id = size++;
+			ids.put(value, id);
+			return id;
+		}
+	}
+
+	public String get(int id) {
+		return values[id];
+	}
+
+	public synchronized int size() {
+		return size;
+	}
+}
@@ -0,0 +1,636 @@
+package com.shansun.demo.log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.collect.Lists;
+
+/**
+ * ȫԤԤ(orderid)͵Ԥ(suborderidƷӶž)Ź
+ * ߶߳дwithhold-join.csvjoin
+ * <p>
+ * ͬһŵļ¼ʱ򣬴ӵһwindowڵһµ߸ʱһ(ԡ־ظֻһΣ
+ * duplicates)һУ
+ * ,״̬(joined|batch-only|single-only),5(time,using,succ,code,caller),8(time,using,itemId,quantity,afterPayment,succ,code,caller)
+ * ûеһա¼˳޹ء
+ * <p>
+ * ־ʱ߹ĳһ¼window+lateness֮lateness¼ã
+ * ļֶβнʱ¼úңlatenessʾֻcloseʱ
+ * <p>
+ * Źϣֳ64ԼԱд߳ͬʱáÿڴ泬޵1/64ʱûµĶ
+ * ̵ֻʣһ룬֮ļ¼ճڴ̵̭Ķŵʱֻڴ棬ȰڴǲҲ׷ӵϣ
+ * ־ʱÿ߹window+lateness뷭һϵļžڵûڵдļļСȴеĶ
+ * һֱcloseʱȫʱ̫Ͱϣٲ𣬽ȫڴͬ
+ * ̵ĶڴÿԼ32ֽڣڴޡ
+ * <p>
+ * ȴеļ¼ļǳ־״̬ûclose˳(̱)ʱЩĹлᶪʧ
+ * Ҳ¶Ӧ־
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class WithholdJoiner implements EntrySink {
+
+	public static final String		FILE			= "withhold-join.csv";
+
+	static final byte				BATCH			= 0;
+	static final byte				SINGLE			= 1;
+
+	private static final int		PARTITION_BITS	= 6;
+	private static final int		PARTITIONS		= 1 << PARTITION_BITS;
+	/** ʱٲֵķ𼸲㣬ͬһֻͬһٲҲû */
+	private static final int		FANOUT_BITS		= 4;
+	private static final int		MAX_DEPTH		= 4;
+
+	/** Ķֽ */
+	private static final int		PENDING_BYTES	= 128;
+	private static final int		ROW_BYTES		= 80;
+
+	private static final String		EMPTY_BATCH		= ",,,,";
+	private static final String		EMPTY_SINGLE	= ",,,,,,,";
+
+	private final int				window;
+	private final int				lateness;
+	private final long				partitionBudget;
+	private final File				spillDir;
+	private final Partition[]		partitions		= new Partition[PARTITIONS];
+
+	private final Writer			out;
+	private long					written			= 0;
+
+	private final AtomicLong		joined			= new AtomicLong();
+	private final AtomicLong		batchOnly		= new AtomicLong();
+	private final AtomicLong		singleOnly		= new AtomicLong();
+	private final AtomicLong		duplicates		= new AtomicLong();
+	private final AtomicLong		spilled			= new AtomicLong();
+
+	/**
+	 * @param base Ŀ¼Էָβ
+	 * @param window 
+	 * @param lateness 룬ʾȵclose
+	 * @param memory ڴȴļ¼ռֽ()
+	 * @param append ļд
+	 */
+	public WithholdJoiner(String base, int window, int lateness, long memory, boolean append) throws IOException {
+		this.window = window;
+		this.lateness = lateness;
+		this.partitionBudget = Math.max(1, memory / PARTITIONS);
+		this.spillDir = new File(base, "join-spill");
+		for (int i = 0; i < PARTITIONS; i++) {
+			partitions[i] = new Partition(i, partitionBudget);
+		}
+
+		OutputStream file = new FilterOutputStream(new FileOutputStream(base + FILE, append)) {
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				out.write(b, off, len);
+				written += len;
+			}
+
+			@Override
+			public void write(int b) throws IOException {
+				out.write(b);
+				written++;
+			}
+		};
+		out = new BufferedWriter(new OutputStreamWriter(file, "gb2312"));
+	}
+
+	/**
+	 * ȡȫԤۼ¼ŽӦͺԡšʱ䲻淶йˣ
+	 */
+	@Override
+	public void write(EntryTable table) throws IOException {
+		StringBuilder fields = new StringBuilder(128);
+		for (int row = 0, size = table.size(); row < size; row++) {
+			if (table.type(row) != EntryTable.FULL_WITHHOLD) {
+				continue;
+			}
+
+			long biz = table.longValue(EntryTable.BIZ_ID, row);
+			long sub = table.longValue(EntryTable.SUB_ID, row);
+			long time = table.epochSeconds(row);
+			if ((biz < 0 && sub < 0) || time < 0) {
+				continue;
+			}
+
+			byte kind = biz >= 0 ? BATCH : SINGLE;
+			fields.setLength(0);
+			fields.append(table.getTime(row)).append(',');
+			append(fields, table.getInt(EntryTable.USING, row)).append(',');
+			if (kind == SINGLE) {
+				append(fields, table.getLong(EntryTable.ITEM_ID, row)).append(',');
+				append(fields, table.getInt(EntryTable.QUANTITY, row)).append(',');
+				append(fields, table.getText(EntryTable.AFTER_PAYMENT, row)).append(',');
+			}
+			append(fields, table.getText(EntryTable.SUCC, row)).append(',');
+			append(fields, table.getText(EntryTable.CODE, row)).append(',');
+			append(fields, table.getText(EntryTable.CALLER, row));
+
+			long key = kind == BATCH ? biz : sub;
+			partitions[bucket(key, 0)].add(key, new Row(time, kind, fields.toString()));
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		synchronized (out) {
+			out.flush();
+		}
+	}
+
+	@Override
+	public long bytesWritten() {
+		synchronized (out) {
+			return written;
+		}
+	}
+
+	/**
+	 * лڵȵļ¼̵ķ֮write
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			for (Partition partition : partitions) {
+				partition.finish();
+			}
+		} finally {
+			synchronized (out) {
+				out.close();
+			}
+			spillDir.delete();
+		}
+	}
+
+	/**
+	 * ̵ļ¼žһwatermarkཻowneṛ
+	 * ļƷŲڴʱȰϣ¼λ
+	 */
+	private void replay(File file, int depth, long watermark, Partition owner) throws IOException {
+		if (file.length() * 2 > partitionBudget && depth < MAX_DEPTH) {
+			File[] parts = new File[1 << FANOUT_BITS];
+			DataOutputStream[] outs = new DataOutputStream[parts.length];
+			DataInputStream in = openSpill(file);
+			try {
+				long key;
+				while ((key = readKey(in)) >= 0) {
+					Row row = readRow(in);
+					int b = bucket(key, depth);
+					if (outs[b] == null) {
+						parts[b] = new File(file.getPath() + "-" + b);
+						outs[b] = newSpill(parts[b]);
+					}
+					writeSpill(outs[b], key, row);
+				}
+			} finally {
+				in.close();
+				for (DataOutputStream o : outs) {
+					if (o != null) {
+						o.close();
+					}
+				}
+			}
+			file.delete();
+			for (File part : parts) {
+				if (part != null) {
+					replay(part, depth + 1, watermark, owner);
+				}
+			}
+			return;
+		}
+
+		Map<Long, Pending> groups = new LinkedHashMap<Long, Pending>();
+		DataInputStream in = openSpill(file);
+		try {
+			long key;
+			while ((key = readKey(in)) >= 0) {
+				Row row = readRow(in);
+				Pending p = groups.get(key);
+				if (p == null) {
+					p = new Pending();
+					groups.put(key, p);
+				}
+				p.add(row);
+			}
+		} finally {
+			in.close();
+		}
+		file.delete();
+
+		for (Map.Entry<Long, Pending> e : groups.entrySet()) {
+			if (e.getValue().last < watermark) {
+				owner.spilledKeys.remove(e.getKey());
+				owner.emit(e.getKey(), e.getValue());
+			} else {
+				owner.toDisk(e.getKey(), e.getValue());
+			}
+		}
+	}
+
+	/**
+	 * depthùϣļλ06λѡ֮ÿȡ4λ
+	 */
+	static int bucket(long key, int depth) {
+		long mix = key * 0x9E3779B97F4A7C15L;
+		if (depth == 0) {
+			return (int) (mix >>> (64 - PARTITION_BITS));
+		}
+		return (int) (mix >>> (64 - PARTITION_BITS - FANOUT_BITS * depth)) & ((1 << FANOUT_BITS) - 1);
+	}
+
+	/**
+	 * һ򵥱Ԥۣfieldsʱñߵļ
+	 */
+	static class Row implements Comparable<Row> {
+		/** ڵ졢־Ҳܰʱšʱ̭ */
+		final long		time;
+		final byte		kind;
+		final String	fields;
+
+		Row(long time, byte kind, String fields) {
+			this.time = time;
+			this.kind = kind;
+			this.fields = fields;
+		}
+
+		/** ʱ䣬ͬһٰ͡ݣ֤뵽˳޹ */
+		@Override
+		public int compareTo(Row o) {
+			if (time != o.time) {
+				return time < o.time ? -1 : 1;
+			}
+			if (kind != o.kind) {
+				return kind - o.kind;
+			}
+			return fields.compareTo(o.fields);
+		}
+	}
+
+	/**
+	 * һŻûļ¼
+	 */
+	static class Pending {
+		final List<Row>	rows	= Lists.newArrayListWithCapacity(2);
+		long			last	= -1;
+		/** ռõڴ */
+		long			bytes	= PENDING_BYTES;
+
+		void add(Row row) {
+			rows.add(row);
+			last = Math.max(last, row.time);
+			bytes += ROW_BYTES + 2 * row.fields.length();
+		}
+	}
+
+	/**
+	 *  -> ʱ䣬ѰַɾʱѺŲĹšʱ䶼Ǹ-1ʾλ
+	 */
+	static class SpillIndex {
+		private long[]	keys	= newKeys(16);
+		private long[]	values	= new long[16];
+		private int		size	= 0;
+
+		/** ûз-1 */
+		long get(long key) {
+			int mask = keys.length - 1;
+			for (int i = slot(key, mask);; i = (i + 1) & mask) {
+				if (keys[i] == key) {
+					return values[i];
+				}
+				if (keys[i] < 0) {
+					return -1;
+				}
+			}
+		}
+
+		/** ʱϴʱ */
+		void put(long key, long value) {
+			if ((size + 1) * 2 > keys.length) {
+				resize(keys.length * 2);
+			}
+			int mask = keys.length - 1;
+			int i = slot(key, mask);
+			while (keys[i] >= 0 && keys[i] != key) {
+				i = (i + 1) & mask;
+			}
+			if (keys[i] < 0) {
+				keys[i] = key;
+				values[i] = value;
+				size++;
+			} else {
+				values[i] = Math.max(values[i], value);
+			}
+		}
+
+		void remove(long key) {
+			int mask = keys.length - 1;
+			int i = slot(key, mask);
+			while (keys[i] != key) {
+				if (keys[i] < 0) {
+					return;
+				}
+				i = (i + 1) & mask;
+			}
+			size--;
+			for (int j = (i + 1) & mask; keys[j] >= 0; j = (j + 1) & mask) {
+				int home = slot(keys[j], mask);
+				// home(i, j]ĲŲ
+				if (i <= j ? (i < home && home <= j) : (i < home || home <= j)) {
+					continue;
+				}
+				keys[i] = keys[j];
+				values[i] = values[j];
+				i = j;
+			}
+			keys[i] = -1;
+		}
+
+		private void resize(int capacity) {
+			long[] oldKeys = keys, oldValues = values;
+			keys = newKeys(capacity);
+			values = new long[capacity];
+			int mask = capacity - 1;
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] >= 0) {
+					int j = slot(oldKeys[i], mask);
+					while (keys[j] >= 0) {
+						j = (j + 1) & mask;
+					}
+					keys[j] = oldKeys[i];
+					values[j] = oldValues[i];
+				}
+			}
+		}
+
+		/** Ѿõbucketϣĸλɢ */
+		private static int slot(long key, int mask) {
+			long h = key * 0xC2B2AE3D27D4EB4FL;
+			return (int) (h ^ (h >>> 32)) & mask;
+		}
+
+		private static long[] newKeys(int capacity) {
+			long[] keys = new long[capacity];
+			Arrays.fill(keys, -1);
+			return keys;
+		}
+	}
+
+	class Partition {
+		final int						number;
+		final long						budget;
+
+		/** һθµ˳̭ʱͷ */
+		final Map<Long, Pending>		pending		= new LinkedHashMap<Long, Pending>(16, 0.75f, true);
+		long							memory		= 0;
+		long							maxTime		= -1;
+
+		/** м¼Ķ -> ʱ */
+		final SpillIndex				spilledKeys	= new SpillIndex();
+		File							spillFile;
+		DataOutputStream				spill;
+		int								files		= 0;
+		/** ϵĶʲôʱܵڣˮλûͲ÷ļ */
+		long							nextExpiry	= Long.MAX_VALUE;
+		long							lastPass	= Long.MIN_VALUE / 2;
+
+		Partition(int number, long budget) {
+			this.number = number;
+			this.budget = budget;
+		}
+
+		synchronized void add(long key, Row row) throws IOException {
+			Pending p = pending.get(key);
+			if (p == null) {
+				p = new Pending();
+				pending.put(key, p);
+				memory += PENDING_BYTES;
+			}
+			long bytes = p.bytes;
+			p.add(row);
+			memory += p.bytes - bytes;
+
+			if (row.time > maxTime) {
+				maxTime = row.time;
+				if (lateness >= 0) {
+					long watermark = maxTime - lateness - window;
+					evict(watermark);
+					if (watermark > nextExpiry && watermark - lastPass >= Math.max(1, window + lateness)) {
+						expire(watermark);
+					}
+				}
+			}
+			if (memory > budget) {
+				spill(budget / 2);
+			}
+		}
+
+		/**
+		 * һwatermarkĶţļ¼ֻһµ̵Ķ׷ӵϣȷļʱһ
+		 */
+		void evict(long watermark) throws IOException {
+			Iterator<Map.Entry<Long, Pending>> it = pending.entrySet().iterator();
+			while (it.hasNext()) {
+				Map.Entry<Long, Pending> e = it.next();
+				Pending p = e.getValue();
+				if (p.last >= watermark) {
+					break;
+				}
+				it.remove();
+				memory -= p.bytes;
+				if (spilledKeys.get(e.getKey()) >= 0) {
+					push(e.getKey(), p);
+				} else {
+					emit(e.getKey(), p);
+				}
+			}
+		}
+
+		/**
+		 * һϵļڵĶдļ
+		 */
+		void expire(long watermark) throws IOException {
+			lastPass = watermark;
+			Iterator<Map.Entry<Long, Pending>> it = pending.entrySet().iterator();
+			while (it.hasNext()) {
+				Map.Entry<Long, Pending> e = it.next();
+				if (spilledKeys.get(e.getKey()) >= 0) {
+					it.remove();
+					memory -= e.getValue().bytes;
+					push(e.getKey(), e.getValue());
+				}
+			}
+			File file = closeSpill();
+			nextExpiry = Long.MAX_VALUE;
+			replay(file, 1, watermark, this);
+		}
+
+		/**
+		 * ûµĶֱ̣ڴ治target
+		 */
+		void spill(long target) throws IOException {
+			Iterator<Map.Entry<Long, Pending>> it = pending.entrySet().iterator();
+			while (memory > target && it.hasNext()) {
+				Map.Entry<Long, Pending> e = it.next();
+				it.remove();
+				memory -= e.getValue().bytes;
+				push(e.getKey(), e.getValue());
+			}
+		}
+
+		/**
+		 * лڵȵļ¼
+		 */
+		synchronized void finish() throws IOException {
+			if (spill == null) {
+				for (Map.Entry<Long, Pending> e : pending.entrySet()) {
+					emit(e.getKey(), e.getValue());
+				}
+			} else {
+				spill(0);
+				replay(closeSpill(), 1, Long.MAX_VALUE, this);
+			}
+			pending.clear();
+			memory = 0;
+		}
+
+		private void push(long key, Pending p) throws IOException {
+			toDisk(key, p);
+			spilled.addAndGet(p.rows.size());
+		}
+
+		void toDisk(long key, Pending p) throws IOException {
+			if (spill == null) {
+				if (!spillDir.exists() && !spillDir.mkdirs()) {
+					throw new IOException("Cannot create " + spillDir);
+				}
+				spillFile = new File(spillDir, "partition-" + number + "-" + files++);
+				spill = newSpill(spillFile);
+			}
+			for (Row row : p.rows) {
+				writeSpill(spill, key, row);
+			}
+			spilledKeys.put(key, p.last);
+			nextExpiry = Math.min(nextExpiry, p.last);
+		}
+
+		private File closeSpill() throws IOException {
+			File file = spillFile;
+			spill.close();
+			spill = null;
+			spillFile = null;
+			return file;
+		}
+
+		/**
+		 * ʱֳһδµÿһ
+		 */
+		private void emit(long key, Pending p) throws IOException {
+			List<Row> rows = p.rows;
+			Collections.sort(rows);
+
+			Row[] sides = new Row[2];
+			long start = rows.get(0).time;
+			StringBuilder lines = new StringBuilder(160);
+			for (Row row : rows) {
+				if (row.time - start > window) {
+					line(lines, key, sides);
+					sides[BATCH] = sides[SINGLE] = null;
+					start = row.time;
+				}
+				if (sides[row.kind] != null) {
+					duplicates.incrementAndGet();
+				}
+				// ںʱ
+				sides[row.kind] = row;
+			}
+			line(lines, key, sides);
+
+			synchronized (out) {
+				out.append(lines);
+			}
+		}
+
+		private void line(StringBuilder lines, long key, Row[] sides) {
+			Row batch = sides[BATCH], single = sides[SINGLE];
+			String status;
+			if (batch != null && single != null) {
+				status = "joined";
+				joined.incrementAndGet();
+			} else if (batch != null) {
+				status = "batch-only";
+				batchOnly.incrementAndGet();
+			} else {
+				status = "single-only";
+				singleOnly.incrementAndGet();
+			}
+
+			lines.append(key).append(',').append(status).append(',');
+			lines.append(batch == null ? EMPTY_BATCH : batch.fields).append(',');
+			lines.append(single == null ? EMPTY_SINGLE : single.fields).append('\n');
+		}
+	}
+
+	private static DataOutputStream newSpill(File file) throws IOException {
+		return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024));
+	}
+
+	private static DataInputStream openSpill(File file) throws IOException {
+		return new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+	}
+
+	private static void writeSpill(DataOutputStream out, long key, Row row) throws IOException {
+		out.writeLong(key);
+		out.writeLong(row.time);
+		out.writeByte(row.kind);
+		out.writeUTF(row.fields);
+	}
+
+	/** ŶǷǸģļβ-1 */
+	private static long readKey(DataInputStream in) throws IOException {
+		try {
+			return in.readLong();
+		} catch (EOFException e) {
+			return -1;
+		}
+	}
+
+	private static Row readRow(DataInputStream in) throws IOException {
+		long time = in.readLong();
+		byte kind = in.readByte();
+		return new Row(time, kind, in.readUTF());
+	}
+
+	private static StringBuilder append(StringBuilder out, String value) {
+		return value == null ? out : out.append(value);
+	}
+
+	/**
+	 * һͳƣʱӡ
+	 */
+	public String stats() {
+		return String.format("join: joined=%d batch-only=%d single-only=%d duplicates=%d spilled=%d", joined.get(), batchOnly.get(), singleOnly.get(),
+				duplicates.get(), spilled.get());
+	}
+}
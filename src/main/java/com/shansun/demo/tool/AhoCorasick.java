@@ -0,0 +1,145 @@
+package com.shansun.demo.tool;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Aho-Corasickģʽƥ䣬һɨҳıֵģʽ
+ * <p>
+ * ģʽ±꼴ȼ{@link #firstMatch(CharSequence)}سֵģʽ±Сһ
+ * 밴˳containsĽͬʱֻıйأģʽ޹ء
+ * ֻ̰߳ȫ
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class AhoCorasick {
+
+	private static final int	NONE	= Integer.MAX_VALUE;
+
+	/** ģʽַֹź±+1ַţ0ַ */
+	private final char[]		alphabet;
+	private final int			width;
+
+	/** ASCIIֱַӲ */
+	private final int[]			ascii	= new int[128];
+
+	/** ״̬תƱnext[state * width + ַ] */
+	private final int[]			next;
+
+	/** ״̬ʱƥģʽС±꣬ûΪNONE */
+	private final int[]			output;
+
+	public AhoCorasick(List<String> patterns) {
+		TreeSet<Character> chars = new TreeSet<Character>();
+		for (String pattern : patterns) {
+			if (pattern.length() == 0) {
+				throw new IllegalArgumentException("empty pattern");
+			}
+			for (int i = 0; i < pattern.length(); i++) {
+				chars.add(pattern.charAt(i));
+			}
+		}
+		alphabet = new char[chars.size()];
+		int k = 0;
+		for (Character c : chars) {
+			alphabet[k++] = c;
+		}
+		width = alphabet.length + 1;
+		for (char c = 0; c < 128; c++) {
+			int i = Arrays.binarySearch(alphabet, c);
+			ascii[c] = i < 0 ? 0 : i + 1;
+		}
+
+		// trie
+		List<int[]> trie = Lists.newArrayList();
+		List<Integer> outs = Lists.newArrayList();
+		trie.add(newNode());
+		outs.add(NONE);
+		for (int p = 0; p < patterns.size(); p++) {
+			String pattern = patterns.get(p);
+			int state = 0;
+			for (int i = 0; i < pattern.length(); i++) {
+				int symbol = symbol(pattern.charAt(i));
+				if (trie.get(state)[symbol] == 0) {
+					trie.get(state)[symbol] = trie.size();
+					trie.add(newNode());
+					outs.add(NONE);
+				}
+				state = trie.get(state)[symbol];
+			}
+			outs.set(state, Math.min(outs.get(state), p));
+		}
+
+		// 㲹ȫʧתƣõDFA
+		int states = trie.size();
+		next = new int[states * width];
+		output = new int[states];
+		int[] fail = new int[states];
+		int[] queue = new int[states];
+		int head = 0, tail = 0;
+
+		for (int s = 0; s < states; s++) {
+			output[s] = outs.get(s);
+		}
+		for (int c = 1; c < width; c++) {
+			int child = trie.get(0)[c];
+			next[c] = child;
+			if (child != 0) {
+				queue[tail++] = child;
+			}
+		}
+		while (head < tail) {
+			int state = queue[head++];
+			output[state] = Math.min(output[state], output[fail[state]]);
+			for (int c = 1; c < width; c++) {
+				int child = trie.get(state)[c];
+				if (child != 0) {
+					fail[child] = next[fail[state] * width + c];
+					next[state * width + c] = child;
+					queue[tail++] = child;
+				} else {
+					next[state * width + c] = next[fail[state] * width + c];
+				}
+			}
+		}
+	}
+
+	/**
+	 * ıֵģʽ±Сһûַ-1
+	 */
+	public int firstMatch(CharSequence text) {
+		int best = NONE;
+		int state = 0;
+		for (int i = 0, len = text.length(); i < len; i++) {
+			state = next[state * width + symbol(text.charAt(i))];
+			if (output[state] < best) {
+				best = output[state];
+				if (best == 0) {
+					break;
+				}
+			}
+		}
+		return best == NONE ? -1 : best;
+	}
+
+	public int states() {
+		return output.length;
+	}
+
+	private int[] newNode() {
+		return new int[width];
+	}
+
+	private int symbol(char c) {
+		if (c < 128) {
+			return ascii[c];
+		}
+		int i = Arrays.binarySearch(alphabet, c);
+		return i < 0 ? 0 : i + 1;
+	}
+}
@@ -0,0 +1,601 @@
+package com.shansun.demo.tool;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.common.collect.Lists;
+
+/**
+ * ڴöCSVĳһ()ڴ̶̣߳
+ * <ol>
+ * <li>ԴļгԼ"ڴԤ/߳"ĶΣ̳߳mmapк򣬰дһrun
+ * ͬʱÿ{@link #SPARSE}мһϡ</li>
+ * <li>ørunϡȡλ㣬ѼռгɷΧÿΧڸrunֽ䶼ֱ
+ * λҲͶˣÿΧһmmaprunök·鲢дĿļĶӦλ</li>
+ * </ol>
+ * ԰(bizIdǰ0ȡֵĵ0)ֽ("HH:mm:ss")ȽϣͬıԴļе˳
+ * ֧ţ(GBK/gb2312Ķַֽﲻ',''\n')
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class ExternalSorter {
+
+	/** ÿмһϡ */
+	static final int			SPARSE				= 1024;
+
+	/** 鲢ʱÿ̷ּ߳Χһ㸺ظ */
+	static final int			RANGES_PER_THREAD	= 4;
+
+	static final int			BUFFER_SIZE			= 1024 * 1024;
+
+	static final long			MIN_RUN_SIZE		= 1024 * 1024;
+
+	/** λ쵽βһκrunҪmmap */
+	static final long			MAX_RUN_SIZE		= LineChunks.MAX_CHUNK_SIZE - 64 * 1024 * 1024;
+
+	private final int			column;
+	private final boolean		numeric;
+	private final long			memory;
+	private final int			threads;
+
+	/**
+	 * @param column ڼ򣬴0ʼ
+	 * @param numeric ֱȽϣֽ
+	 * @param memory ڴԤ(ֽ)ͬʱŵĸμ
+	 */
+	public ExternalSorter(int column, boolean numeric, long memory, int threads) {
+		if (column < 0) {
+			throw new IllegalArgumentException("Bad column " + column);
+		}
+		this.column = column;
+		this.numeric = numeric;
+		this.memory = memory;
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * ÷ExternalSorter &lt;Դļ&gt; &lt;Ŀļ&gt; &lt;У0ʼ&gt; [numeric|textĬtext]
+	 * <p>
+	 * -Dsorter.memory=MB ڴԤ㣬Ĭ256-Dsorter.threads=N ߳ĬCPU
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length < 3) {
+			System.err.println("Usage: ExternalSorter <source> <target> <column> [numeric|text]");
+			return;
+		}
+		File source = new File(args[0]);
+		File target = new File(args[1]);
+		boolean numeric = args.length > 3 && args[3].equals("numeric");
+		long memory = Long.getLong("sorter.memory", 256) * 1024 * 1024;
+		int threads = Integer.getInteger("sorter.threads", Runtime.getRuntime().availableProcessors());
+
+		long start = System.currentTimeMillis();
+		long size = new ExternalSorter(Integer.parseInt(args[2]), numeric, memory, threads).sort(source, target);
+		long used = Math.max(1, System.currentTimeMillis() - start);
+		System.err.println("Sorted " + size + " bytes, Used " + used + "ms (" + size * 1000 / used / 1024 / 1024 + " MB/s)");
+	}
+
+	/**
+	 * źдtargetмrun"target.runs"Ŀ¼£ɾ
+	 *
+	 * @return дֽ
+	 */
+	public long sort(File source, File target) throws IOException, InterruptedException {
+		File dir = new File(target.getPath() + ".runs");
+		if (!dir.exists() && !dir.mkdirs()) {
+			throw new IOException("Cannot create " + dir);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Run> runs = Lists.newArrayList();
+		try {
+			spill(source, dir, executor, runs);
+			return merge(runs, target, executor);
+		} finally {
+			executor.shutdownNow();
+			for (Run run : runs) {
+				run.file.delete();
+			}
+			dir.delete();
+		}
+	}
+
+	/**
+	 * һβдrunε˳runs
+	 */
+	void spill(File source, File dir, ExecutorService executor, List<Run> runs) throws IOException, InterruptedException {
+		RandomAccessFile raf = new RandomAccessFile(source, "r");
+		final FileChannel in = raf.getChannel();
+		try {
+			long runSize = Math.max(MIN_RUN_SIZE, Math.min(MAX_RUN_SIZE, memory / threads));
+			List<Future<Run>> futures = Lists.newArrayList();
+			int n = 0;
+			for (final LineChunks.Chunk chunk : LineChunks.split(in, runSize)) {
+				final File file = new File(dir, "run-" + n++);
+				futures.add(executor.submit(new Callable<Run>() {
+
+					@Override
+					public Run call() throws IOException {
+						return sortChunk(chunk.map(in), file);
+					}
+				}));
+			}
+			for (Future<Run> future : futures) {
+				runs.add(get(future));
+			}
+		} finally {
+			raf.close();
+		}
+	}
+
+	Run sortChunk(ByteBuffer buffer, File file) throws IOException {
+		Lines lines = new Lines(buffer);
+		int[] order = lines.sort();
+
+		Run run = new Run(file);
+		FileChannel out = new FileOutputStream(file).getChannel();
+		try {
+			ByteBuffer output = ByteBuffer.allocate(BUFFER_SIZE);
+			ByteBuffer view = buffer.duplicate();
+			long offset = 0;
+			for (int k = 0; k < order.length; k++) {
+				int i = order[k];
+				if (k % SPARSE == 0) {
+					run.mark(offset, key(buffer, lines.keyFrom[i], lines.keyTo[i]));
+				}
+				int from = lines.starts[i], to = lines.ends[i];
+				put(view, from, to, output, out);
+				offset += to - from;
+				if (to == from || buffer.get(to - 1) != '\n') {
+					// һûлз
+					if (!output.hasRemaining()) {
+						flush(output, out);
+					}
+					output.put((byte) '\n');
+					offset++;
+				}
+			}
+			flush(output, out);
+			run.size = offset;
+		} finally {
+			out.close();
+		}
+		return run;
+	}
+
+	/**
+	 * ڶλмΧΧй鲢targetĶӦλ
+	 */
+	long merge(final List<Run> runs, File target, ExecutorService executor) throws IOException, InterruptedException {
+		List<Key> samples = Lists.newArrayList();
+		for (Run run : runs) {
+			run.map();
+			samples.addAll(run.marks);
+		}
+		Comparator<Key> comparator = new Comparator<Key>() {
+
+			@Override
+			public int compare(Key a, Key b) {
+				return ExternalSorter.this.compare(a, b);
+			}
+		};
+		Collections.sort(samples, comparator);
+
+		int ranges = Math.max(1, Math.min(threads * RANGES_PER_THREAD, samples.size()));
+		final long[][] bounds = new long[runs.size()][ranges + 1];
+		for (int r = 0; r < runs.size(); r++) {
+			Run run = runs.get(r);
+			bounds[r][ranges] = run.size;
+			for (int p = 1; p < ranges; p++) {
+				bounds[r][p] = lowerBound(run, samples.get(samples.size() * p / ranges));
+			}
+		}
+
+		long[] offsets = new long[ranges + 1];
+		for (int p = 0; p < ranges; p++) {
+			long size = 0;
+			for (int r = 0; r < runs.size(); r++) {
+				size += bounds[r][p + 1] - bounds[r][p];
+			}
+			offsets[p + 1] = offsets[p] + size;
+		}
+
+		RandomAccessFile raf = new RandomAccessFile(target, "rw");
+		try {
+			raf.setLength(offsets[ranges]);
+		} finally {
+			raf.close();
+		}
+
+		List<Future<Void>> futures = Lists.newArrayList();
+		for (int p = 0; p < ranges; p++) {
+			final int range = p;
+			final File file = target;
+			final long offset = offsets[p];
+			futures.add(executor.submit(new Callable<Void>() {
+
+				@Override
+				public Void call() throws IOException {
+					mergeRange(runs, bounds, range, file, offset);
+					return null;
+				}
+			}));
+		}
+		for (Future<Void> future : futures) {
+			get(future);
+		}
+		return offsets[ranges];
+	}
+
+	void mergeRange(List<Run> runs, long[][] bounds, int range, File target, long offset) throws IOException {
+		PriorityQueue<Cursor> heap = new PriorityQueue<Cursor>(Math.max(1, runs.size()), new Comparator<Cursor>() {
+
+			@Override
+			public int compare(Cursor a, Cursor b) {
+				int c = ExternalSorter.this.compare(a.prefix, a.buffer, a.keyFrom, a.keyTo, b.prefix, b.buffer, b.keyFrom, b.keyTo);
+				return c != 0 ? c : a.run - b.run;
+			}
+		});
+		for (int r = 0; r < runs.size(); r++) {
+			Cursor cursor = new Cursor(r, runs.get(r).buffer, (int) bounds[r][range], (int) bounds[r][range + 1]);
+			if (cursor.next()) {
+				heap.add(cursor);
+			}
+		}
+
+		RandomAccessFile raf = new RandomAccessFile(target, "rw");
+		try {
+			FileChannel out = raf.getChannel();
+			out.position(offset);
+			ByteBuffer output = ByteBuffer.allocate(BUFFER_SIZE);
+			while (!heap.isEmpty()) {
+				Cursor cursor = heap.poll();
+				put(cursor.view, cursor.start, cursor.next, output, out);
+				if (cursor.next()) {
+					heap.add(cursor);
+				}
+			}
+			flush(output, out);
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * runһСkeyеλãϡ֣ɨSPARSE
+	 */
+	long lowerBound(Run run, Key key) {
+		int low = 0, high = run.marks.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (compare(run.marks.get(mid), key) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		int from = low == 0 ? 0 : (int) run.offsets.get(low - 1).longValue();
+		Cursor cursor = new Cursor(0, run.buffer, from, (int) run.size);
+		while (cursor.next()) {
+			if (compare(cursor.prefix, cursor.buffer, cursor.keyFrom, cursor.keyTo, key.prefix, key.buffer, 0, key.buffer.limit()) >= 0) {
+				return cursor.start;
+			}
+		}
+		return run.size;
+	}
+
+	/**
+	 * һУֹλúͼλãк鲢(ȶ)
+	 */
+	class Lines {
+		final ByteBuffer	buffer;
+		int					count;
+		int[]				starts	= new int[1024];
+		int[]				ends	= new int[1024];
+		int[]				keyFrom	= new int[1024];
+		int[]				keyTo	= new int[1024];
+		long[]				prefix	= new long[1024];
+
+		Lines(ByteBuffer buffer) {
+			this.buffer = buffer;
+			int limit = buffer.limit();
+			int[] key = new int[2];
+			for (int start = 0; start < limit;) {
+				int nl = start;
+				while (nl < limit && buffer.get(nl) != '\n') {
+					nl++;
+				}
+				int end = Math.min(limit, nl + 1);
+				if (count == starts.length) {
+					grow();
+				}
+				findKey(buffer, start, nl > start && buffer.get(nl - 1) == '\r' ? nl - 1 : nl, key);
+				starts[count] = start;
+				ends[count] = end;
+				keyFrom[count] = key[0];
+				keyTo[count] = key[1];
+				prefix[count] = prefix(buffer, key[0], key[1]);
+				count++;
+				start = end;
+			}
+		}
+
+		private void grow() {
+			int capacity = count * 2;
+			starts = Arrays.copyOf(starts, capacity);
+			ends = Arrays.copyOf(ends, capacity);
+			keyFrom = Arrays.copyOf(keyFrom, capacity);
+			keyTo = Arrays.copyOf(keyTo, capacity);
+			prefix = Arrays.copyOf(prefix, capacity);
+		}
+
+		int[] sort() {
+			int[] order = new int[count];
+			for (int i = 0; i < count; i++) {
+				order[i] = i;
+			}
+			mergeSort(order, order.clone(), 0, count);
+			return order;
+		}
+
+		/**
+		 * źõĽa[from, to)bͬݵʱ
+		 */
+		private void mergeSort(int[] a, int[] b, int from, int to) {
+			if (to - from <= 16) {
+				for (int i = from + 1; i < to; i++) {
+					int v = a[i], j = i;
+					for (; j > from && compare(a[j - 1], v) > 0; j--) {
+						a[j] = a[j - 1];
+					}
+					a[j] = v;
+				}
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			// ŵbٺϲa
+			mergeSort(b, a, from, mid);
+			mergeSort(b, a, mid, to);
+			for (int i = from, p = from, q = mid; i < to; i++) {
+				a[i] = q >= to || (p < mid && compare(b[p], b[q]) <= 0) ? b[p++] : b[q++];
+			}
+		}
+
+		private int compare(int i, int j) {
+			return ExternalSorter.this.compare(prefix[i], buffer, keyFrom[i], keyTo[i], prefix[j], buffer, keyFrom[j], keyTo[j]);
+		}
+	}
+
+	/**
+	 * һrun鲢ǰmmap(1GB)
+	 */
+	static class Run {
+		final File			file;
+		long				size;
+		final List<Long>	offsets	= Lists.newArrayList();
+		final List<Key>		marks	= Lists.newArrayList();
+		MappedByteBuffer	buffer;
+
+		Run(File file) {
+			this.file = file;
+		}
+
+		void mark(long offset, Key key) {
+			offsets.add(offset);
+			marks.add(key);
+		}
+
+		void map() throws IOException {
+			RandomAccessFile raf = new RandomAccessFile(file, "r");
+			try {
+				buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, size);
+			} finally {
+				raf.close();
+			}
+		}
+	}
+
+	/**
+	 * Ƴļϡͷλ
+	 */
+	static class Key {
+		final long			prefix;
+		final ByteBuffer	buffer;
+
+		Key(long prefix, byte[] bytes) {
+			this.prefix = prefix;
+			this.buffer = ByteBuffer.wrap(bytes);
+		}
+	}
+
+	Key key(ByteBuffer buffer, int from, int to) {
+		byte[] bytes = new byte[to - from];
+		for (int i = from; i < to; i++) {
+			bytes[i - from] = buffer.get(i);
+		}
+		return new Key(prefix(buffer, from, to), bytes);
+	}
+
+	/**
+	 * run[start, end)ǰend
+	 */
+	class Cursor {
+		final int			run;
+		final ByteBuffer	buffer;
+		final ByteBuffer	view;
+		final int			end;
+		final int[]			key	= new int[2];
+
+		int					start;
+		int					next;
+		int					keyFrom;
+		int					keyTo;
+		long				prefix;
+
+		Cursor(int run, ByteBuffer buffer, int from, int end) {
+			this.run = run;
+			this.buffer = buffer;
+			this.view = buffer.duplicate();
+			this.next = from;
+			this.end = end;
+		}
+
+		/**
+		 * ƵһУû˷falseǰΪ[start, next)
+		 */
+		boolean next() {
+			if (next >= end) {
+				return false;
+			}
+			start = next;
+			int nl = start;
+			while (buffer.get(nl) != '\n') {
+				nl++;
+			}
+			next = nl + 1;
+			findKey(buffer, start, nl > start && buffer.get(nl - 1) == '\r' ? nl - 1 : nl, key);
+			keyFrom = key[0];
+			keyTo = key[1];
+			prefix = prefix(buffer, keyFrom, keyTo);
+			return true;
+		}
+	}
+
+	/**
+	 * [from, to)λ÷key[0], key[1]ּȥǰ0ֻȡͷ
+	 */
+	void findKey(ByteBuffer buffer, int from, int to, int[] key) {
+		int i = from;
+		for (int c = 0; c < column && i < to; i++) {
+			if (buffer.get(i) == ',') {
+				c++;
+			}
+		}
+		int end = i;
+		while (end < to && buffer.get(end) != ',') {
+			end++;
+		}
+		if (numeric) {
+			while (i < end && buffer.get(i) == '0') {
+				i++;
+			}
+			int digits = i;
+			while (digits < end && buffer.get(digits) >= '0' && buffer.get(digits) <= '9') {
+				digits++;
+			}
+			end = digits;
+		}
+		key[0] = i;
+		key[1] = end;
+	}
+
+	/**
+	 * Ƚõlongǰ׺ּ18λʱֵȡLong.MAX_VALUEֽڱȣ
+	 * ֽڼȡǰ8ֽ(ˣ޷űȽ)
+	 */
+	long prefix(ByteBuffer buffer, int from, int to) {
+		long value = 0;
+		if (numeric) {
+			if (to - from > 18) {
+				return Long.MAX_VALUE;
+			}
+			for (int i = from; i < to; i++) {
+				value = value * 10 + buffer.get(i) - '0';
+			}
+			return value;
+		}
+		for (int i = 0; i < 8; i++) {
+			value = value << 8 | (from + i < to ? buffer.get(from + i) & 0xff : 0);
+		}
+		return value;
+	}
+
+	int compare(Key a, Key b) {
+		return compare(a.prefix, a.buffer, 0, a.buffer.limit(), b.prefix, b.buffer, 0, b.buffer.limit());
+	}
+
+	int compare(long pa, ByteBuffer a, int af, int at, long pb, ByteBuffer b, int bf, int bt) {
+		if (pa != pb) {
+			if (numeric) {
+				return pa < pb ? -1 : 1;
+			}
+			return (pa ^ Long.MIN_VALUE) < (pb ^ Long.MIN_VALUE) ? -1 : 1;
+		}
+		int la = at - af, lb = bt - bf;
+		if (numeric) {
+			// 18λʱǰ׺ֵȥǰ0λĴ
+			if (pa != Long.MAX_VALUE) {
+				return 0;
+			}
+			if (la != lb) {
+				return la < lb ? -1 : 1;
+			}
+		} else if (la <= 8 && lb <= 8) {
+			// ǰ8̵ֽͬǰ
+			return la - lb;
+		}
+		for (int i = 0, n = Math.min(la, lb); i < n; i++) {
+			int x = a.get(af + i) & 0xff, y = b.get(bf + i) & 0xff;
+			if (x != y) {
+				return x < y ? -1 : 1;
+			}
+		}
+		return la - lb;
+	}
+
+	/**
+	 * outputдview[from, to)Ųʱд壬Ȼ廹ֱдviewǵ÷õduplicate
+	 */
+	static void put(ByteBuffer view, int from, int to, ByteBuffer output, FileChannel out) throws IOException {
+		ByteBuffer line = view;
+		line.clear();
+		line.limit(to).position(from);
+		if (line.remaining() > output.remaining()) {
+			flush(output, out);
+			if (line.remaining() > output.remaining()) {
+				while (line.hasRemaining()) {
+					out.write(line);
+				}
+				return;
+			}
+		}
+		output.put(line);
+	}
+
+	static void flush(ByteBuffer output, FileChannel out) throws IOException {
+		output.flip();
+		while (output.hasRemaining()) {
+			out.write(output);
+		}
+		output.clear();
+	}
+
+	private static <T> T get(Future<T> future) throws IOException, InterruptedException {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			Throwable t = e.getCause();
+			if (t instanceof IOException) {
+				throw (IOException) t;
+			}
+			throw new IOException(t.toString(), t);
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package com.shansun.demo.tool;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+/**
+ * FileChannel.transferToƴļݲû̬
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class FileConcat {
+
+	/**
+	 * partfromʼ׷ӵoutĵǰλ
+	 *
+	 * @return ׷ӵֽ
+	 */
+	public static long transfer(File part, long from, FileChannel out) throws IOException {
+		FileInputStream in = new FileInputStream(part);
+		try {
+			FileChannel channel = in.getChannel();
+			long end = channel.size();
+			long position = from;
+			// transferToһβһ
+			while (position < end) {
+				position += channel.transferTo(position, end - position, out);
+			}
+			return Math.max(0, end - from);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * ΰpartsƴtarget
+	 *
+	 * @param append falseʱtarget
+	 * @return targetյĳ
+	 */
+	public static long concat(File target, boolean append, List<File> parts) throws IOException {
+		FileOutputStream out = new FileOutputStream(target, append);
+		try {
+			FileChannel channel = out.getChannel();
+			for (File part : parts) {
+				transfer(part, 0, channel);
+			}
+			return channel.size();
+		} finally {
+			out.close();
+		}
+	}
+}
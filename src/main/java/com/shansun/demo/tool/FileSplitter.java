@@ -1,100 +1,588 @@
 package com.shansun.demo.tool;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.Charset;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import com.google.common.collect.Lists;
 import com.google.common.io.Files;
 
-/**  
+/**
+ * Ѵļгɼݣȫ̲(GBK/gb2312Ķַֽﲻ',''\n')з
+ * <ul>
+ * <li>С{@link #split(File, int, int)}/{@link #splitBySize(File, long, int)}ָȡĿƫ֮
+ * һ'\n'ָֻ㸽KBݵֽڷΧٲɲ{@link #COPY_SIZE}Ƭ̳߳
+ * FileChannel.transferToиƣٶȡڴ̴</li>
+ * <li>{@link KeyRouter}CSVĳеĹϣȥķݣͬһ(bizId)ͬһ</li>
+ * <li>ʱ䣺{@link TimeRouter}һڵʱڵͰַݣûʱ(쳣ջ)ǰһ</li>
+ * </ul>
+ * ʱԴļֶ̳߳ﲢ·ɣÿΰڴٰε˳׷ӵԼFileChannel
+ * ÿе˳Դļһ¡ݵļõʱŽյķݲͬʱ࿪{@link #MAX_OPEN}
+ * ˹صûдģдʱ׷Ӵ򿪣(簴һ1440)Ҳᳬ̵ļޡ
+ * <p>
+ * ΪԴļͬĿ¼µ"-1.չ""-2.չ"...зԭ
+ *
  * @author lanbo <br>
  * @version 1.0 <br>
  * @date 2012-11-13
  */
 public class FileSplitter {
 
-	private static final Charset	GBK	= Charset.forName("GBK");
-	private static final String	LINE_SEPERATOR	= System.getProperty("line.separator");
+	/** һֽڣķƬɶ */
+	static final long	COPY_SIZE	= 64L * 1024 * 1024;
+
+	/** ʱÿ·Ķγͬʱ2*߳ڴ */
+	static final long	ROUTE_SIZE	= 8L * 1024 * 1024;
+
+	static final int	DAY			= 24 * 3600;
+
+	/** ʱͬʱ򿪵ķ */
+	static final int	MAX_OPEN	= 64;
 
 	/**
-	 * @param args
-	 * @throws IOException
+	 * һȥķݣڶ߳ﲢ
 	 */
-	public static void main(String[] args) throws IOException {
-		String filepath = "C:\\Users\\lanbo.xj\\Desktop\\failover_1111.csv";
-		int splitCnt = 3;
+	public interface Router {
 
-		File file = new File(filepath);
+		int parts();
+
+		/**
+		 * @param from 
+		 * @param to βз
+		 * @return ݵ±꣬0ʼ-1ʾǰһ()
+		 */
+		int route(ByteBuffer buffer, int from, int to);
+	}
+
+	/**
+	 * ÷
+	 * <ul>
+	 * <li>FileSplitter &lt;ļ&gt; [Ĭ3] [߳]</li>
+	 * <li>FileSplitter &lt;ļ&gt; size &lt;ÿݴС512m&gt; [߳]</li>
+	 * <li>FileSplitter &lt;ļ&gt; key &lt;У0ʼ&gt; &lt;&gt; [߳]</li>
+	 * <li>FileSplitter &lt;ļ&gt; time &lt;У-1Ϊ־׵ʱ&gt; &lt;ÿݷ&gt; [߳]</li>
+	 * </ul>
+	 * ߳ĬCPU
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length == 0) {
+			System.err.println("Usage: FileSplitter <file> [parts] [threads]");
+			System.err.println("       FileSplitter <file> size <bytes, e.g. 512m> [threads]");
+			System.err.println("       FileSplitter <file> key <column> <parts> [threads]");
+			System.err.println("       FileSplitter <file> time <column, -1 for log lines> <minutes> [threads]");
+			return;
+		}
+		File file = new File(args[0]);
+		String mode = args.length > 1 ? args[1] : "3";
+		int cpus = Runtime.getRuntime().availableProcessors();
 
-		// 33002ms
 		long start = System.currentTimeMillis();
-		String line = null;
-		int total = 0;
-		
-		//		char[] buf = new char[1024 * 1];  
-		//		LineNumberReader lnReader = new LineNumberReader(new InputStreamReader(new FileInputStream(file)));
-		//		// lnReader.skip(Long.MAX_VALUE);
-		//		while(lnReader.read(buf) != -1) ;
-		//		total = lnReader.getLineNumber() + 1;
-		//		lnReader.close();
-		
-		// 28087ms
-		InputStream is = new BufferedInputStream(new FileInputStream(file));
-	    try {
-	        byte[] c = new byte[1024];
-	        int readChars = 0;
-	        while ((readChars = is.read(c)) != -1) {
-	            for (int i = 0; i < readChars; ++i) {
-	                if (c[i] == '\n')
-	                    ++total;
-	            }
-	        } 
-	    } finally {
-	        is.close();
-	    }
-		
-		System.err.println("Total Line: " + total + ", Used " + (System.currentTimeMillis() - start) + "ms");
-
-		int eachSize = total / splitCnt;
-
-		String output = filepath;  
-		String extension = Files.getFileExtension(output);
-
-		int index = 1;
-		int cnt = 0;
-		File outputFile = null;
-
-		BufferedReader reader = Files.newReader(file, GBK);
-		BufferedWriter writer = null;
-		while ((line = reader.readLine()) != null) {
-			if (cnt == 0) {
-				if(writer != null) writer.close();
-				
-				outputFile = new File(output.replace("." + extension, "-" + index++ + "." + extension));
-				writer = Files.newWriter(outputFile, GBK);
-			}
-
-			writer.append(line);
-			writer.append(LINE_SEPERATOR);
-
-			cnt++;
-
-			if (cnt > eachSize) {
-				System.out.println("Fetched " + cnt + " Lines.");
-				cnt = 0;
-			}
-		}
-		
-		if(writer != null) {
-			writer.close();
-		}
-		if(reader != null) {
-			reader.close();
+		List<File> parts;
+		if (mode.equals("size")) {
+			parts = splitBySize(file, parseSize(args[2]), args.length > 3 ? Integer.parseInt(args[3]) : cpus);
+		} else if (mode.equals("key")) {
+			Router router = new KeyRouter(Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+			parts = split(file, router, args.length > 4 ? Integer.parseInt(args[4]) : cpus);
+		} else if (mode.equals("time")) {
+			Router router = new TimeRouter(Integer.parseInt(args[2]), Integer.parseInt(args[3]) * 60);
+			parts = split(file, router, args.length > 4 ? Integer.parseInt(args[4]) : cpus);
+		} else {
+			parts = split(file, Integer.parseInt(mode), args.length > 2 ? Integer.parseInt(args[2]) : cpus);
+		}
+		long used = Math.max(1, System.currentTimeMillis() - start);
+
+		for (File part : parts) {
+			System.out.println(part + ": " + part.length() + " bytes");
+		}
+		System.err.println("Split " + file.length() + " bytes into " + parts.size() + " parts, Used " + used + "ms ("
+				+ file.length() * 1000 / used / 1024 / 1024 + " MB/s)");
+	}
+
+	/**
+	 * СУÿݲpartSize(һ)ݴС
+	 */
+	public static List<File> splitBySize(File source, long partSize, int threads) throws IOException, InterruptedException {
+		if (partSize < 1) {
+			throw new IllegalArgumentException("partSize must be positive: " + partSize);
+		}
+		long parts = Math.max(1, (source.length() + partSize - 1) / partSize);
+		if (parts > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many parts: " + parts);
+		}
+		return split(source, (int) parts, threads);
+	}
+
+	/**
+	 * гpartsݣÿ'\n'β(һݳ)һбһݻʱķݿΪ
+	 *
+	 * @return ļ˳
+	 */
+	public static List<File> split(File source, int parts, int threads) throws IOException, InterruptedException {
+		if (parts < 1) {
+			throw new IllegalArgumentException("parts must be positive: " + parts);
+		}
+
+		RandomAccessFile raf = new RandomAccessFile(source, "r");
+		final FileChannel in = raf.getChannel();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+		try {
+			long[] bounds = boundaries(in, parts);
+
+			List<File> files = Lists.newArrayList();
+			List<Future<Void>> copies = Lists.newArrayList();
+			for (int i = 0; i < parts; i++) {
+				final File target = part(source, i + 1);
+				final long from = bounds[i], to = bounds[i + 1];
+				files.add(target);
+
+				// ȶó(˳صļĲ)Ƭٰƫд
+				RandomAccessFile out = new RandomAccessFile(target, "rw");
+				try {
+					out.setLength(to - from);
+				} finally {
+					out.close();
+				}
+
+				for (long pos = from; pos < to; pos += COPY_SIZE) {
+					final long start = pos, end = Math.min(to, pos + COPY_SIZE);
+					copies.add(executor.submit(new Callable<Void>() {
+
+						@Override
+						public Void call() throws IOException {
+							copy(in, start, end, target, start - from);
+							return null;
+						}
+					}));
+				}
+			}
+
+			for (Future<Void> copy : copies) {
+				get(copy);
+			}
+			return files;
+		} finally {
+			executor.shutdownNow();
+			raf.close();
+		}
+	}
+
+	/**
+	 * routerУÿǿյķһļͬľļǿշݵĻɾ
+	 *
+	 * @return ǿյķݵļ±˳
+	 */
+	public static List<File> split(File source, final Router router, int threads) throws IOException, InterruptedException {
+		int parts = router.parts();
+		if (parts < 1) {
+			throw new IllegalArgumentException("parts must be positive: " + parts);
+		}
+
+		RandomAccessFile raf = new RandomAccessFile(source, "r");
+		final FileChannel in = raf.getChannel();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+		Parts outs = new Parts(source, parts, MAX_OPEN);
+		try {
+			List<LineChunks.Chunk> chunks = LineChunks.split(in, ROUTE_SIZE);
+			Queue<Future<Routed>> pending = new ArrayDeque<Future<Routed>>();
+			int window = 2 * Math.max(1, threads);
+			int next = 0;
+			// һһȥķݣοͷûȥи
+			int carry = -1;
+			while (next < chunks.size() || !pending.isEmpty()) {
+				while (next < chunks.size() && pending.size() < window) {
+					final LineChunks.Chunk chunk = chunks.get(next++);
+					pending.add(executor.submit(new Callable<Routed>() {
+
+						@Override
+						public Routed call() throws IOException {
+							return route(chunk.map(in), router);
+						}
+					}));
+				}
+				carry = get(pending.poll()).writeTo(outs, carry);
+			}
+			outs.close();
+			return outs.files();
+		} finally {
+			executor.shutdownNow();
+			outs.close();
+			raf.close();
+		}
+	}
+
+	/**
+	 * ·һΣȥͬһݵкϲһθƣûȥеţдʱ֪һȥķ
+	 */
+	static Routed route(MappedByteBuffer buffer, Router router) {
+		Routed routed = new Routed(router.parts());
+		int limit = buffer.limit();
+		int run = 0, runPart = -1;
+		for (int start = 0; start < limit;) {
+			int nl = start;
+			while (nl < limit && buffer.get(nl) != '\n') {
+				nl++;
+			}
+			int end = nl > start && buffer.get(nl - 1) == '\r' ? nl - 1 : nl;
+			int next = Math.min(limit, nl + 1);
+
+			int part = router.route(buffer, start, end);
+			if (part >= router.parts()) {
+				throw new IllegalStateException("Router returned part " + part + " of " + router.parts());
+			}
+			if (part >= 0 && part != runPart) {
+				if (runPart >= 0) {
+					routed.add(runPart, buffer, run, start);
+				} else {
+					routed.lead(buffer, start);
+					routed.first = part;
+				}
+				run = start;
+				runPart = part;
+			}
+			start = next;
+		}
+		if (runPart < 0) {
+			routed.lead(buffer, limit);
+		} else if (limit > run) {
+			routed.add(runPart, buffer, run, limit);
+		}
+		routed.last = runPart;
+		return routed;
+	}
+
+	/**
+	 * һΰܺõ
+	 */
+	static class Routed {
+		final byte[][]	bytes;
+		final int[]		sizes;
+		/** ûȥ */
+		byte[]			lead;
+		/** һһȥȥķݣζûʱΪ-1 */
+		int				first	= -1;
+		int				last	= -1;
+
+		Routed(int parts) {
+			bytes = new byte[parts][];
+			sizes = new int[parts];
+		}
+
+		void add(int part, ByteBuffer buffer, int from, int to) {
+			int length = to - from;
+			if (bytes[part] == null) {
+				bytes[part] = new byte[Math.max(length, 4096)];
+			} else if (sizes[part] + length > bytes[part].length) {
+				bytes[part] = Arrays.copyOf(bytes[part], Math.max(sizes[part] + length, bytes[part].length * 2));
+			}
+			ByteBuffer source = buffer.duplicate();
+			source.limit(to).position(from);
+			source.get(bytes[part], sizes[part], length);
+			sizes[part] += length;
+		}
+
+		void lead(ByteBuffer buffer, int to) {
+			lead = new byte[to];
+			ByteBuffer source = buffer.duplicate();
+			source.limit(to).position(0);
+			source.get(lead);
+		}
+
+		/**
+		 * ׵ȥcarry(һһеķ)ļͷûһʱűεһȥУûʱȥ0
+		 *
+		 * @return һȥķݣΪһεcarry
+		 */
+		int writeTo(Parts outs, int carry) throws IOException {
+			int leadPart = carry >= 0 ? carry : Math.max(0, first);
+			if (lead != null && lead.length > 0) {
+				write(outs.channel(leadPart), lead, lead.length);
+			}
+			for (int i = 0; i < sizes.length; i++) {
+				if (sizes[i] > 0) {
+					write(outs.channel(i), bytes[i], sizes[i]);
+				}
+			}
+			return last >= 0 ? last : leadPart;
+		}
+
+		static void write(FileChannel out, byte[] bytes, int length) throws IOException {
+			ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+			while (buffer.hasRemaining()) {
+				out.write(buffer);
+			}
+		}
+	}
+
+	/**
+	 * ݵļһдʱ½(صͬļ)򿪵ĳʱصûдģ֮д׷Ӵ
+	 */
+	static class Parts {
+		private final File							source;
+		private final boolean[]						created;
+		private final int							maxOpen;
+		/** ˳ûдǰ */
+		private final LinkedHashMap<Integer, FileChannel>	open	= new LinkedHashMap<Integer, FileChannel>(16, 0.75f, true);
+
+		Parts(File source, int parts, int maxOpen) {
+			this.source = source;
+			this.created = new boolean[parts];
+			this.maxOpen = Math.max(1, maxOpen);
+		}
+
+		FileChannel channel(int part) throws IOException {
+			FileChannel channel = open.get(part);
+			if (channel != null) {
+				return channel;
+			}
+			if (open.size() >= maxOpen) {
+				Iterator<FileChannel> eldest = open.values().iterator();
+				FileChannel closing = eldest.next();
+				eldest.remove();
+				closing.close();
+			}
+			channel = new FileOutputStream(part(source, part + 1), created[part]).getChannel();
+			created[part] = true;
+			open.put(part, channel);
+			return channel;
+		}
+
+		/**
+		 * ķݵļ±˳ûķɾϴµͬļ
+		 */
+		List<File> files() {
+			List<File> files = Lists.newArrayList();
+			for (int i = 0; i < created.length; i++) {
+				File file = part(source, i + 1);
+				if (created[i]) {
+					files.add(file);
+				} else if (file.exists()) {
+					file.delete();
+				}
+			}
+			return files;
+		}
+
+		/** ظ */
+		void close() throws IOException {
+			IOException failure = null;
+			for (FileChannel channel : open.values()) {
+				try {
+					channel.close();
+				} catch (IOException e) {
+					failure = e;
+				}
+			}
+			open.clear();
+			if (failure != null) {
+				throw failure;
+			}
+		}
+	}
+
+	/**
+	 * CSVcolumn(0ʼ֧)ĹϣַݣͬͬһݣϣASCIIͬString.hashCode
+	 */
+	public static class KeyRouter implements Router {
+		private final int	column;
+		private final int	parts;
+
+		public KeyRouter(int column, int parts) {
+			if (column < 0 || parts < 1) {
+				throw new IllegalArgumentException("Bad column " + column + " or parts " + parts);
+			}
+			this.column = column;
+			this.parts = parts;
+		}
+
+		@Override
+		public int parts() {
+			return parts;
+		}
+
+		@Override
+		public int route(ByteBuffer buffer, int from, int to) {
+			int i = from;
+			for (int c = 0; c < column && i < to; i++) {
+				if (buffer.get(i) == ',') {
+					c++;
+				}
+			}
+			int h = 0;
+			for (; i < to && buffer.get(i) != ','; i++) {
+				h = 31 * h + (buffer.get(i) & 0xff);
+			}
+			return partOf(h, parts);
+		}
+
+		static int partOf(int hash, int parts) {
+			hash ^= hash >>> 16;
+			return (hash & Integer.MAX_VALUE) % parts;
+		}
+	}
+
+	/**
+	 * ʱͰһڵڼͰȥڼݣʱȡCSVcolumnе"H:m[:s]"columnΪ-1ʱȡ־
+	 * "yyyy-MM-dd H:m:s"ʱ䡣ȡʱ(쳣ջ)ǰһ
+	 * <p>
+	 * ڣļﲻͬͬһʱεлͬһ(Դļ˳)ҪֿȰļ
+	 */
+	public static class TimeRouter implements Router {
+		private final int	column;
+		private final int	bucket;
+		private final int	parts;
+
+		/**
+		 * @param bucket ÿݵ
+		 */
+		public TimeRouter(int column, int bucket) {
+			if (column < -1 || bucket < 1) {
+				throw new IllegalArgumentException("Bad column " + column + " or bucket " + bucket);
+			}
+			this.column = column;
+			this.bucket = bucket;
+			this.parts = (DAY + bucket - 1) / bucket;
+		}
+
+		@Override
+		public int parts() {
+			return parts;
+		}
+
+		@Override
+		public int route(ByteBuffer buffer, int from, int to) {
+			int i = from;
+			if (column < 0) {
+				// 
+				if (to - from < 11 || buffer.get(from + 4) != '-') {
+					return -1;
+				}
+				while (i < to && buffer.get(i) != ' ') {
+					i++;
+				}
+				i++;
+			} else {
+				for (int c = 0; c < column && i < to; i++) {
+					if (buffer.get(i) == ',') {
+						c++;
+					}
+				}
+			}
+			int seconds = seconds(buffer, i, to);
+			return seconds < 0 ? -1 : seconds / bucket;
+		}
+
+		/**
+		 * "H:m""H:m:s"1~2λ˷-1
+		 */
+		static int seconds(ByteBuffer buffer, int i, int to) {
+			int value = 0;
+			for (int field = 0; field < 3; field++) {
+				int v = 0, n = 0;
+				for (; i < to && n < 2 && buffer.get(i) >= '0' && buffer.get(i) <= '9'; i++, n++) {
+					v = v * 10 + buffer.get(i) - '0';
+				}
+				if (n == 0 || v > (field == 0 ? 23 : 59)) {
+					return -1;
+				}
+				value = value * 60 + v;
+				if (i >= to || buffer.get(i) != ':') {
+					return field == 0 ? -1 : field == 1 ? value * 60 : value;
+				}
+				i++;
+			}
+			return value;
+		}
+	}
+
+	/**
+	 * parts+1߽磬kΪsize*k/parts֮ĵһ
+	 */
+	static long[] boundaries(FileChannel channel, int parts) throws IOException {
+		long size = channel.size();
+		long[] bounds = new long[parts + 1];
+		bounds[parts] = size;
+		for (int k = 1; k < parts; k++) {
+			long target = size / parts * k + size % parts * k / parts;
+			// targetʱǰһֽھ'\n'
+			long bound = target == 0 ? 0 : LineChunks.nextLineStart(channel, target - 1, size);
+			bounds[k] = Math.max(bound, bounds[k - 1]);
+		}
+		return bounds;
+	}
+
+	/**
+	 * Դļ[start, end)ƵtargetoffsetinǹģֻôλõtransferTo
+	 */
+	static void copy(FileChannel in, long start, long end, File target, long offset) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(target, "rw");
+		try {
+			FileChannel out = raf.getChannel();
+			out.position(offset);
+			while (start < end) {
+				long n = in.transferTo(start, end - start, out);
+				if (n <= 0) {
+					throw new IOException("Source truncated at offset " + start);
+				}
+				start += n;
+			}
+		} finally {
+			raf.close();
+		}
+	}
+
+	private static <T> T get(Future<T> future) throws IOException, InterruptedException {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			Throwable t = e.getCause();
+			if (t instanceof IOException) {
+				throw (IOException) t;
+			}
+			throw new IOException(t.toString(), t);
+		}
+	}
+
+	/**
+	 * indexݵļ"-index.չ"
+	 */
+	static File part(File source, int index) {
+		String name = source.getName();
+		String extension = Files.getFileExtension(name);
+		String suffix = "-" + index;
+		if (extension.length() > 0) {
+			name = name.substring(0, name.length() - extension.length() - 1) + suffix + "." + extension;
+		} else {
+			name = name + suffix;
+		}
+		return new File(source.getAbsoluteFile().getParentFile(), name);
+	}
+
+	/**
+	 * "512m""10g""64k"ֽ
+	 */
+	public static long parseSize(String text) {
+		String s = text.trim().toLowerCase();
+		long unit = 1;
+		char last = s.charAt(s.length() - 1);
+		if (last == 'k' || last == 'm' || last == 'g') {
+			unit = last == 'k' ? 1024L : last == 'm' ? 1024L * 1024 : 1024L * 1024 * 1024;
+			s = s.substring(0, s.length() - 1);
 		}
+		return (long) (Double.parseDouble(s) * unit);
 	}
 }
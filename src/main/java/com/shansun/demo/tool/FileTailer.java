@@ -0,0 +1,284 @@
+package com.shansun.demo.tool;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.zip.CRC32;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * ¼Ŀ¼ÿ־ļÿ{@link #poll(Listener)}ֻ׷ӵ
+ * <p>
+ * ļͷ1KBݵCRC32ˣļԭλýŶ꣬ԭ½
+ * ļͷļض(ͷԲϻ)Ҳͷȡλÿ{@link #save()}̣
+ * ϴελüɨĿ¼ʹļ֮ļ˵ģɾһ
+ * λţһ°ϻpoll;ʱѾȥļλǰ̰߳ȫ
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class FileTailer {
+
+	/** ļõĿͷ */
+	static final int			HEAD_SIZE	= 1024;
+
+	public interface Listener {
+
+		/**
+		 * [from, to)׷ӵУǰ֮꣬channelᱻر
+		 */
+		void append(File file, FileChannel channel, long from, long to) throws IOException;
+	}
+
+	static class Position {
+		String	name;
+		long	offset;
+		/** ѶCRCĳȣHEAD_SIZE */
+		int		headLength;
+		long	headCrc;
+
+		Position(String name) {
+			this.name = name;
+		}
+
+		Position moveTo(String name) {
+			Position p = new Position(name);
+			p.offset = offset;
+			p.headLength = headLength;
+			p.headCrc = headCrc;
+			return p;
+		}
+	}
+
+	private final File					dir;
+	private final FilenameFilter		filter;
+	private final File					checkpoint;
+
+	/** ļ -> ȡλ */
+	private Map<String, Position>		positions	= Maps.newHashMap();
+
+	public FileTailer(File dir, FilenameFilter filter, File checkpoint) throws IOException {
+		this.dir = dir;
+		this.filter = filter;
+		this.checkpoint = checkpoint;
+		load();
+	}
+
+	/**
+	 * ɨһĿ¼ÿļ׷ӵнlistenerرζ˶ֽ
+	 */
+	public long poll(Listener listener) throws IOException {
+		File[] files = dir.listFiles(filter);
+		if (files == null) {
+			throw new IOException("Cannot list " + dir);
+		}
+		// ȶļʣļǰ
+		Arrays.sort(files, new Comparator<File>() {
+
+			@Override
+			public int compare(File a, File b) {
+				long x = a.lastModified(), y = b.lastModified();
+				return x < y ? -1 : (x == y ? a.getName().compareTo(b.getName()) : 1);
+			}
+		});
+
+		Map<String, Position> next = Maps.newHashMap();
+		List<Position> lost = Lists.newArrayList(positions.values());
+		List<File> unknown = Lists.newArrayList();
+
+		// ļݶԵϵվ
+		for (File file : files) {
+			if (!file.isFile()) {
+				continue;
+			}
+			Position p = positions.get(file.getName());
+			if (p != null && identical(file, p)) {
+				next.put(p.name, p);
+				lost.remove(p);
+			} else {
+				unknown.add(file);
+			}
+		}
+
+		// İԭλãҲĴͷ
+		for (File file : unknown) {
+			Position found = null;
+			for (Iterator<Position> it = lost.iterator(); it.hasNext();) {
+				Position p = it.next();
+				if (p.headLength > 0 && identical(file, p)) {
+					found = p;
+					it.remove();
+					break;
+				}
+			}
+			String name = file.getName();
+			next.put(name, found == null ? new Position(name) : found.moveTo(name));
+		}
+
+		positions = next;
+		long total = 0;
+		for (File file : files) {
+			Position p = next.get(file.getName());
+			if (p != null) {
+				total += read(file, p, listener);
+			}
+		}
+
+		return total;
+	}
+
+	/**
+	 * ȡλд̣дʱļٸ;˳°ļ
+	 */
+	public void save() throws IOException {
+		Properties props = new Properties();
+		for (Position p : positions.values()) {
+			props.setProperty(p.name, p.offset + "," + p.headLength + "," + p.headCrc);
+		}
+
+		File parent = checkpoint.getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.exists()) {
+			parent.mkdirs();
+		}
+		File tmp = new File(checkpoint.getPath() + ".tmp");
+		OutputStream out = new FileOutputStream(tmp);
+		try {
+			props.store(out, "FileTailer: name=offset,headLength,headCrc");
+		} finally {
+			out.close();
+		}
+		if (!tmp.renameTo(checkpoint)) {
+			// WindowsĿʱʧ
+			checkpoint.delete();
+			if (!tmp.renameTo(checkpoint)) {
+				throw new IOException("Cannot replace " + checkpoint);
+			}
+		}
+	}
+
+	/**
+	 * ĳļǰλãûٷ-1
+	 */
+	public long offset(String name) {
+		Position p = positions.get(name);
+		return p == null ? -1 : p.offset;
+	}
+
+	private void load() throws IOException {
+		if (!checkpoint.exists()) {
+			return;
+		}
+		Properties props = new Properties();
+		InputStream in = new FileInputStream(checkpoint);
+		try {
+			props.load(in);
+		} finally {
+			in.close();
+		}
+		for (String name : props.stringPropertyNames()) {
+			String[] values = props.getProperty(name).split(",");
+			if (values.length != 3) {
+				throw new IOException("Bad checkpoint entry " + name + " in " + checkpoint);
+			}
+			Position p = new Position(name);
+			p.offset = Long.parseLong(values[0]);
+			p.headLength = Integer.parseInt(values[1]);
+			p.headCrc = Long.parseLong(values[2]);
+			positions.put(name, p);
+		}
+	}
+
+	private long read(File file, Position p, Listener listener) throws IOException {
+		FileChannel channel = open(file);
+		if (channel == null) {
+			return 0;
+		}
+		try {
+			long size = channel.size();
+			if (size <= p.offset) {
+				return 0;
+			}
+			long end = LineChunks.lastLineEnd(channel, p.offset, size);
+			if (end <= p.offset) {
+				return 0;
+			}
+
+			listener.append(file, channel, p.offset, end);
+
+			long read = end - p.offset;
+			p.offset = end;
+			if (p.headLength < HEAD_SIZE) {
+				p.headLength = (int) Math.min(end, HEAD_SIZE);
+				p.headCrc = crc(channel, p.headLength);
+			}
+			return read;
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * ļȼ¼λọ̈ҿͷһ
+	 */
+	private boolean identical(File file, Position p) throws IOException {
+		if (file.length() < p.offset) {
+			return false;
+		}
+		if (p.headLength == 0) {
+			return true;
+		}
+		FileChannel channel = open(file);
+		if (channel == null) {
+			return false;
+		}
+		try {
+			return channel.size() >= p.headLength && crc(channel, p.headLength) == p.headCrc;
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Ŀ¼֮󱻸ɾķnull
+	 */
+	private static FileChannel open(File file) throws FileNotFoundException {
+		try {
+			return new RandomAccessFile(file, "r").getChannel();
+		} catch (FileNotFoundException e) {
+			if (file.exists()) {
+				// ûȨ޵ȣļ
+				throw e;
+			}
+			return null;
+		}
+	}
+
+	private static long crc(FileChannel channel, int length) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(length);
+		while (buf.hasRemaining()) {
+			if (channel.read(buf, buf.position()) <= 0) {
+				break;
+			}
+		}
+		CRC32 crc = new CRC32();
+		crc.update(buf.array(), 0, buf.position());
+		return crc.getValue();
+	}
+}
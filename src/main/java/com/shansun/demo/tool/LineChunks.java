@@ -0,0 +1,138 @@
+package com.shansun.demo.tool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+/**
+ * ļзгɶΣÿοԵmmapд
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class LineChunks {
+
+	/** 󳤶ȣMappedByteBufferֻintѰַ */
+	public static final long	MAX_CHUNK_SIZE	= 1L << 30;
+
+	private static final int	SCAN_SIZE		= 8 * 1024;
+
+	public static class Chunk {
+		public final long	start;
+		public final long	end;
+
+		public Chunk(long start, long end) {
+			this.start = start;
+			this.end = end;
+		}
+
+		public long size() {
+			return end - start;
+		}
+
+		public MappedByteBuffer map(FileChannel channel) throws IOException {
+			return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+		}
+
+		@Override
+		public String toString() {
+			return "[" + start + ", " + end + ")";
+		}
+	}
+
+	/**
+	 * Ŀ곤з֣ÿζ'\n'β(һγ)쵽β󳬹{@link #MAX_CHUNK_SIZE}Ķ˻صһβ
+	 * ֻһбͳʱ쳣
+	 */
+	public static List<Chunk> split(FileChannel channel, long chunkSize) throws IOException {
+		return split(channel, 0, channel.size(), chunkSize);
+	}
+
+	/**
+	 * ֻ[from, size)from
+	 */
+	public static List<Chunk> split(FileChannel channel, long from, long size, long chunkSize) throws IOException {
+		chunkSize = Math.max(1, Math.min(chunkSize, MAX_CHUNK_SIZE));
+
+		List<Chunk> chunks = Lists.newArrayList();
+		long start = from;
+		while (start < size) {
+			long end = start + chunkSize >= size ? size : nextLineStart(channel, start + chunkSize, size);
+			if (end - start > MAX_CHUNK_SIZE) {
+				end = lastLineEnd(channel, start, start + MAX_CHUNK_SIZE);
+				if (end == start) {
+					throw new IOException("Line too long near offset " + start);
+				}
+			}
+			chunks.add(new Chunk(start, end));
+			start = end;
+		}
+		return chunks;
+	}
+
+	/**
+	 * гԼparts
+	 */
+	public static List<Chunk> splitInto(FileChannel channel, int parts, long minChunkSize) throws IOException {
+		return splitInto(channel, 0, channel.size(), parts, minChunkSize);
+	}
+
+	public static List<Chunk> splitInto(FileChannel channel, long from, long size, int parts, long minChunkSize) throws IOException {
+		long chunkSize = Math.max(minChunkSize, (size - from + parts - 1) / Math.max(1, parts));
+		return split(channel, from, size, chunkSize);
+	}
+
+	/**
+	 * [from, to)һ'\n'֮λãеĽβûзfrom
+	 */
+	public static long lastLineEnd(FileChannel channel, long from, long to) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(SCAN_SIZE);
+		long pos = to;
+		while (pos > from) {
+			int len = (int) Math.min(SCAN_SIZE, pos - from);
+			buf.clear();
+			buf.limit(len);
+			int read = 0;
+			while (read < len) {
+				int n = channel.read(buf, pos - len + read);
+				if (n <= 0) {
+					return from;
+				}
+				read += n;
+			}
+			for (int i = len - 1; i >= 0; i--) {
+				if (buf.get(i) == '\n') {
+					return pos - len + i + 1;
+				}
+			}
+			pos -= len;
+		}
+		return from;
+	}
+
+	/**
+	 * posʼҵһ'\n'һֽڵλãҲsize
+	 */
+	public static long nextLineStart(FileChannel channel, long pos, long size) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(SCAN_SIZE);
+		while (pos < size) {
+			buf.clear();
+			int read = channel.read(buf, pos);
+			if (read <= 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				if (buf.get(i) == '\n') {
+					return pos + i + 1;
+				}
+			}
+			pos += read;
+		}
+		return size;
+	}
+}
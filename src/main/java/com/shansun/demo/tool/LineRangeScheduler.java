@@ -0,0 +1,172 @@
+package com.shansun.demo.tool;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import EDU.oswego.cs.dl.util.concurrent.FJTask;
+import EDU.oswego.cs.dl.util.concurrent.FJTaskRunnerGroup;
+
+import com.google.common.collect.Lists;
+
+/**
+ * ֽڷΧļļס
+ * <p>
+ * ÿļΪһΧСӴСforkΧʱеĵһ'\n'һΪ
+ * һԼһڶ߳͵FJTaskRunnerĶб͵ʱȡ
+ * Կ߳õʣ෶Χʱӽֽ/߳
+ * <p>
+ * ÷{@link #add(FileChannel, long, long)}뷶Χ{@link #run(Handler)}ִвȴȫɣ
+ * Էadd/run{@link #shutdown()}runܲá
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class LineRangeScheduler {
+
+	/** ȡ/(߳*SPLITS_PER_THREAD)͵ȡ */
+	private static final int			SPLITS_PER_THREAD	= 4;
+
+	public interface Handler {
+
+		/**
+		 * һУλڲͬ߳ﲢ
+		 */
+		void handle(FileChannel channel, LineChunks.Chunk chunk) throws Exception;
+	}
+
+	static class Range {
+		final FileChannel	channel;
+		final long			start;
+		final long			end;
+
+		Range(FileChannel channel, long start, long end) {
+			this.channel = channel;
+			this.start = start;
+			this.end = end;
+		}
+	}
+
+	private final FJTaskRunnerGroup		group;
+	private final int					threads;
+	private final long					minChunkSize;
+
+	private final List<Range>			ranges		= Lists.newArrayList();
+
+	public LineRangeScheduler(int threads, long minChunkSize) {
+		this.threads = Math.max(1, threads);
+		this.minChunkSize = Math.max(1, minChunkSize);
+		this.group = new FJTaskRunnerGroup(this.threads);
+	}
+
+	/**
+	 * [start, end)start
+	 */
+	public void add(FileChannel channel, long start, long end) {
+		if (end > start) {
+			ranges.add(new Range(channel, start, end));
+		}
+	}
+
+	/**
+	 * ִѼзΧȫɺ󷵻أʧʱ׳һ쳣
+	 */
+	public void run(final Handler handler) throws IOException, InterruptedException {
+		final List<Range> work = Lists.newArrayList(ranges);
+		ranges.clear();
+		if (work.isEmpty()) {
+			return;
+		}
+
+		long total = 0;
+		for (Range range : work) {
+			total += range.end - range.start;
+		}
+		final long grain = Math.max(minChunkSize, Math.min(LineChunks.MAX_CHUNK_SIZE, total / (threads * SPLITS_PER_THREAD)));
+
+		// ȷŽУȱ͵
+		Collections.sort(work, new Comparator<Range>() {
+
+			@Override
+			public int compare(Range a, Range b) {
+				long x = a.end - a.start, y = b.end - b.start;
+				return x > y ? -1 : (x == y ? 0 : 1);
+			}
+		});
+
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+		group.invoke(new FJTask() {
+
+			@Override
+			public void run() {
+				RangeTask[] tasks = new RangeTask[work.size()];
+				for (int i = 0; i < tasks.length; i++) {
+					Range range = work.get(i);
+					tasks[i] = new RangeTask(range.channel, range.start, range.end, grain, handler, failure);
+					tasks[i].fork();
+				}
+				for (int i = tasks.length - 1; i >= 0; i--) {
+					tasks[i].join();
+				}
+			}
+		});
+
+		Throwable t = failure.get();
+		if (t instanceof IOException) {
+			throw (IOException) t;
+		}
+		if (t != null) {
+			throw new IOException(t.toString(), t);
+		}
+	}
+
+	public void shutdown() {
+		group.interruptAll();
+	}
+
+	static class RangeTask extends FJTask {
+		final FileChannel					channel;
+		final long							start;
+		final long							end;
+		final long							grain;
+		final Handler						handler;
+		final AtomicReference<Throwable>	failure;
+
+		RangeTask(FileChannel channel, long start, long end, long grain, Handler handler, AtomicReference<Throwable> failure) {
+			this.channel = channel;
+			this.start = start;
+			this.end = end;
+			this.grain = grain;
+			this.handler = handler;
+			this.failure = failure;
+		}
+
+		@Override
+		public void run() {
+			try {
+				if (end - start > grain) {
+					long mid = LineChunks.nextLineStart(channel, start + (end - start) / 2, end);
+					if (mid == end && end - start > LineChunks.MAX_CHUNK_SIZE) {
+						// ûлУ˻صǰεһβ
+						mid = LineChunks.lastLineEnd(channel, start, start + (end - start) / 2);
+					}
+					if (mid > start && mid < end) {
+						coInvoke(new RangeTask(channel, start, mid, grain, handler, failure), new RangeTask(channel, mid, end, grain, handler, failure));
+						return;
+					}
+				}
+				if (end - start > LineChunks.MAX_CHUNK_SIZE) {
+					throw new IOException("Line too long near offset " + start);
+				}
+				handler.handle(channel, new LineChunks.Chunk(start, end));
+			} catch (Throwable t) {
+				failure.compareAndSet(null, t);
+			}
+		}
+	}
+}
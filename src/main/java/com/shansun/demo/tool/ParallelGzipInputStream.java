@@ -0,0 +1,371 @@
+package com.shansun.demo.tool;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+/**
+ * ں̨߳̽ѹgzipļһֻӻλȡѹõĿ飬ѹˮ߲
+ * <p>
+ * ַʽ
+ * <ul>
+ * <li>ͨgzip(memberƴ)һѹ߳GZIPInputStream˳ѹһһ</li>
+ * <li>BGZF(bgzipȹɣÿmemberͷ'BC'չֶμűmemberѹ)
+ * ֻ߳гmember̳߳زinflateԭ˳򽻸һ</li>
+ * </ul>
+ * ڿгغ;֮ѭʹãн磬ѹȶһô顣
+ * ѹͻˣ̨߳ȫ֮ͣÿζͬһ쳣̰߳ȫ
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class ParallelGzipInputStream extends InputStream {
+
+	/** BGZFһѹ64KB */
+	static final int							BGZF_BLOCK		= 64 * 1024;
+
+	private static final int					GZIP_MAGIC		= 0x8b1f;
+	private static final int					FEXTRA			= 4;
+
+	/**  */
+	private static final Block					EOF				= new Block(null, -1);
+
+	private final File							file;
+
+	/** е */
+	private final BlockingQueue<byte[]>			free;
+	/** ļ˳źõĿ飬ȡܻڽѹ */
+	private final BlockingQueue<Future<Block>>	ready;
+
+	private final Thread						reader;
+	private final ExecutorService				inflaters;
+
+	private Block								current;
+	private int									position;
+	private volatile boolean					closed;
+	/** һνѹʧܵ쳣֮һֱ */
+	private IOException							failure;
+
+	static class Block {
+		final byte[]	data;
+		final int		length;
+
+		Block(byte[] data, int length) {
+			this.data = data;
+			this.length = length;
+		}
+	}
+
+	public ParallelGzipInputStream(File file) throws IOException {
+		this(file, Runtime.getRuntime().availableProcessors(), 16);
+	}
+
+	/**
+	 * @param threads BGZFʱinflate߳1ʱҲں̨߳̽ѹ
+	 * @param buffers λĿѹȶٿ
+	 */
+	public ParallelGzipInputStream(File file, int threads, int buffers) throws IOException {
+		this.file = file;
+		this.ready = new ArrayBlockingQueue<Future<Block>>(buffers);
+		// ʱ߳ϻһ飬һһ
+		this.free = new ArrayBlockingQueue<byte[]>(buffers + 2);
+		for (int i = 0; i < buffers + 2; i++) {
+			free.add(new byte[BGZF_BLOCK]);
+		}
+
+		boolean bgzf = isBgzf(file);
+		inflaters = bgzf && threads > 1 ? Executors.newFixedThreadPool(threads, daemon("gzip-inflater")) : null;
+		reader = daemon("gzip-reader").newThread(new Runnable() {
+
+			@Override
+			public void run() {
+				try {
+					if (inflaters != null) {
+						readMembers();
+					} else {
+						inflateSequentially();
+					}
+					ready.put(done(EOF));
+				} catch (Exception e) {
+					if (!closed) {
+						// 쳣Ҳ˳򽻸һ
+						try {
+							ready.put(failed(e));
+						} catch (InterruptedException ignore) {
+						}
+					}
+				} finally {
+					// ύĿճѹ꣬ٽµ
+					if (inflaters != null) {
+						inflaters.shutdown();
+					}
+				}
+			}
+		});
+		reader.start();
+	}
+
+	/**
+	 * һmember'BC'չֶξΪļBGZF
+	 */
+	public static boolean isBgzf(File file) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64));
+		try {
+			byte[] header = new byte[18];
+			in.readFully(header);
+			return bgzfBlockSize(header) > 0;
+		} catch (EOFException e) {
+			return false;
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * memberͷ(18ֽ)ȡBGZFܳȣBGZF-1
+	 */
+	static int bgzfBlockSize(byte[] h) {
+		if ((h[0] & 0xff | (h[1] & 0xff) << 8) != GZIP_MAGIC || h[2] != 8 || (h[3] & FEXTRA) == 0) {
+			return -1;
+		}
+		int xlen = h[10] & 0xff | (h[11] & 0xff) << 8;
+		if (xlen < 6 || h[12] != 'B' || h[13] != 'C' || (h[14] & 0xff | (h[15] & 0xff) << 8) != 2) {
+			return -1;
+		}
+		return (h[16] & 0xff | (h[17] & 0xff) << 8) + 1;
+	}
+
+	/**
+	 * ͨgzip˳ѹÿٽȥ
+	 */
+	void inflateSequentially() throws Exception {
+		InputStream in = new GZIPInputStream(new FileInputStream(file), 64 * 1024);
+		try {
+			while (!closed) {
+				byte[] buffer = free.take();
+				int n = 0;
+				int read;
+				while (n < buffer.length && (read = in.read(buffer, n, buffer.length - n)) > 0) {
+					n += read;
+				}
+				if (n == 0) {
+					free.offer(buffer);
+					return;
+				}
+				ready.put(done(new Block(buffer, n)));
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * BGZF鳤гmemberinflate˳ļ˳
+	 */
+	void readMembers() throws Exception {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 256 * 1024));
+		try {
+			byte[] header = new byte[18];
+			while (!closed) {
+				int first = in.read();
+				if (first < 0) {
+					return;
+				}
+				header[0] = (byte) first;
+				in.readFully(header, 1, header.length - 1);
+				int size = bgzfBlockSize(header);
+				if (size < 0) {
+					throw new IOException(file + ": not a BGZF member");
+				}
+				final byte[] member = new byte[size];
+				System.arraycopy(header, 0, member, 0, header.length);
+				in.readFully(member, header.length, size - header.length);
+
+				ready.put(inflaters.submit(new Callable<Block>() {
+
+					@Override
+					public Block call() throws Exception {
+						return inflate(member);
+					}
+				}));
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	private static final ThreadLocal<Inflater>	INFLATER	= new ThreadLocal<Inflater>() {
+
+																@Override
+																protected Inflater initialValue() {
+																	return new Inflater(true);
+																}
+															};
+
+	Block inflate(byte[] member) throws IOException, InterruptedException, DataFormatException {
+		int xlen = member[10] & 0xff | (member[11] & 0xff) << 8;
+		int from = 12 + xlen;
+		int trailer = member.length - 8;
+		long crc = uint32(member, trailer);
+		int size = (int) uint32(member, trailer + 4);
+
+		byte[] buffer = free.take();
+		if (buffer.length < size) {
+			// Ϲ淶Ĵ鵥䣬Ļȥ
+			free.offer(buffer);
+			buffer = new byte[size];
+		}
+
+		Inflater inflater = INFLATER.get();
+		inflater.reset();
+		inflater.setInput(member, from, trailer - from);
+		int n = 0;
+		while (n < size && !inflater.finished()) {
+			int read = inflater.inflate(buffer, n, size - n);
+			if (read == 0 && inflater.needsInput()) {
+				break;
+			}
+			n += read;
+		}
+
+		CRC32 check = new CRC32();
+		check.update(buffer, 0, n);
+		if (n != size || check.getValue() != crc) {
+			throw new IOException(file + ": corrupt BGZF member");
+		}
+		return new Block(buffer, n);
+	}
+
+	static long uint32(byte[] b, int i) {
+		return (b[i] & 0xffL) | (b[i + 1] & 0xffL) << 8 | (b[i + 2] & 0xffL) << 16 | (b[i + 3] & 0xffL) << 24;
+	}
+
+	static Future<Block> failed(final Exception e) {
+		FutureTask<Block> future = new FutureTask<Block>(new Callable<Block>() {
+
+			@Override
+			public Block call() throws Exception {
+				throw e;
+			}
+		});
+		future.run();
+		return future;
+	}
+
+	static Future<Block> done(Block block) {
+		FutureTask<Block> future = new FutureTask<Block>(new Runnable() {
+
+			@Override
+			public void run() {
+			}
+		}, block);
+		future.run();
+		return future;
+	}
+
+	/**
+	 * ǰͻؿгأһ(տ飬BGZFβһ)βfalse
+	 */
+	private boolean next() throws IOException {
+		if (failure != null) {
+			throw failure;
+		}
+		while (current != EOF) {
+			if (current != null && position < current.length) {
+				return true;
+			}
+			if (current != null && current.data.length == BGZF_BLOCK) {
+				free.offer(current.data);
+			}
+			try {
+				current = ready.take().get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("interrupted while waiting for " + file);
+			} catch (ExecutionException e) {
+				failure = e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause().toString());
+				stop();
+				throw failure;
+			}
+			position = 0;
+		}
+		return false;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!next()) {
+			return -1;
+		}
+		return current.data[position++] & 0xff;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (!next()) {
+			return -1;
+		}
+		int n = Math.min(len, current.length - position);
+		System.arraycopy(current.data, position, b, off, n);
+		position += n;
+		return n;
+	}
+
+	@Override
+	public int available() {
+		return current == null || current == EOF ? 0 : current.length - position;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (!closed) {
+			stop();
+		}
+	}
+
+	/**
+	 * ̺ͣ߳ͽѹ̣߳ûȡߵĿ
+	 */
+	private void stop() {
+		closed = true;
+		reader.interrupt();
+		if (inflaters != null) {
+			inflaters.shutdownNow();
+		}
+		ready.clear();
+		current = EOF;
+	}
+
+	static ThreadFactory daemon(final String name) {
+		return new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, name);
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
+}
@@ -0,0 +1,170 @@
+package com.shansun.demo.log;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.io.Files;
+
+/**
+ * WithholdJoinerʱ䡢
+ *
+ * @author lanbo <br>
+ * @version 1.0 <br>
+ * @date 2026-10-18
+ */
+public class WithholdJoinerTest {
+
+	@Rule
+	public TemporaryFolder	folder		= new TemporaryFolder();
+
+	final LogLineScanner	scanner		= new LogLineScanner();
+	EntryTable				table;
+	String					base;
+
+	@Before
+	public void setUp() {
+		table = new EntryTable(new StringDictionary(), 1024);
+		base = folder.getRoot().getPath() + File.separator;
+	}
+
+	@Test
+	public void emitsAfterMidnightInFollowMode() throws IOException {
+		WithholdJoiner joiner = new WithholdJoiner(base, 60, 60, 1 << 20, false);
+		batch("2012-11-11", "23:59:50", 100);
+		single("2012-11-11", "23:59:55", 100);
+		// ˮλƽյļ¼Ҫͬһ
+		batch("2012-11-12", "00:05:00", samePartition(100));
+		joiner.write(table);
+		joiner.flush();
+
+		// յļ¼ˮλƹǰһĶõclose
+		List<String> lines = output();
+		assertEquals(1, lines.size());
+		assertTrue(lines.get(0), lines.get(0).startsWith("100,joined,23:59:50,"));
+		joiner.close();
+	}
+
+	@Test
+	public void keepsDaysApart() throws IOException {
+		WithholdJoiner joiner = new WithholdJoiner(base, 60, -1, 1 << 20, false);
+		batch("2012-11-11", "10:00:00", 100);
+		single("2012-11-12", "10:00:00", 100);
+		joiner.write(table);
+		joiner.close();
+
+		List<String> lines = output();
+		assertEquals(2, lines.size());
+		assertTrue(lines.get(0), lines.get(0).startsWith("100,batch-only,"));
+		assertTrue(lines.get(1), lines.get(1).startsWith("100,single-only,"));
+	}
+
+	@Test
+	public void spillingJoinsLikeInMemory() throws IOException {
+		List<String> inMemory = follow(64 << 20);
+		// ÿֻһ
+		List<String> spilled = follow(64 * 256);
+		assertEquals(inMemory, spilled);
+
+		int joined = 0;
+		for (String line : spilled) {
+			if (line.contains(",joined,")) {
+				joined++;
+			}
+		}
+		assertEquals(1600, joined);
+	}
+
+	/**
+	 * 2000ÿһ4/5еʣ2룻closeǰ󲿷Ѿȫ
+	 */
+	List<String> follow(long memory) throws IOException {
+		new File(base + WithholdJoiner.FILE).delete();
+		WithholdJoiner joiner = new WithholdJoiner(base, 60, 60, memory, false);
+		for (int i = 0; i < 2000; i++) {
+			table.clear();
+			batch("2012-11-11", time(36000 + i), 1000 + i);
+			if (i % 5 != 0) {
+				single("2012-11-11", time(36000 + i + 2), 1000 + i);
+			}
+			joiner.write(table);
+		}
+		joiner.flush();
+		assertTrue(output().size() > 1800);
+
+		String stats = joiner.stats();
+		if (memory < 1 << 20) {
+			assertTrue(stats, !stats.contains("spilled=0"));
+			// ֻʣûڵĶ
+			long size = 0;
+			for (File file : new File(base, "join-spill").listFiles()) {
+				size += file.length();
+			}
+			assertTrue(String.valueOf(size), size < 32 * 1024);
+		}
+		joiner.close();
+
+		List<String> lines = output();
+		assertEquals(2000, lines.size());
+		Collections.sort(lines);
+		return lines;
+	}
+
+	static String time(int seconds) {
+		return String.format("%02d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+	}
+
+	List<String> output() throws IOException {
+		return Files.readLines(new File(base + WithholdJoiner.FILE), Charset.forName("gb2312"));
+	}
+
+	static long samePartition(long key) {
+		long other = key + 1;
+		while (WithholdJoiner.bucket(other, 0) != WithholdJoiner.bucket(key, 0)) {
+			other++;
+		}
+		return other;
+	}
+
+	/**
+	 * LogAnalyzerLogFullWithholdFormatterȡͬ
+	 */
+	void batch(String date, String time, long orderId) {
+		String line = date + " " + time + " WARN IPM-Trade - P1-WithholdInventory-Batch [172.23.230.184,tc-alipay,3008ms] orderid=" + orderId
+				+ " [T] ,Not-Enough";
+		assertTrue(line, scanner.batchWithhold(line));
+		int row = table.add(EntryTable.FULL_WITHHOLD);
+		table.setTime(row, scanner, 2);
+		table.setDate(row, scanner, 1);
+		table.setLong(EntryTable.BIZ_ID, row, scanner, 5);
+		table.setText(EntryTable.SUCC, row, "true");
+		table.setInt(EntryTable.USING, row, scanner, 4);
+		table.setText(EntryTable.CALLER, row, scanner.caller());
+	}
+
+	void single(String date, String time, long subOrderId) {
+		String line = date + " " + time + " WARN IPM-Trade - P1-WithholdInventory-Single[172.23.180.55,tf,1ms] suborderid=" + subOrderId
+				+ ",quantity=1,AfterPayment=true,item=16269325560 [T] ,Not-Enough";
+		assertTrue(line, scanner.singleWithhold(line));
+		int row = table.add(EntryTable.FULL_WITHHOLD);
+		table.setTime(row, scanner, 2);
+		table.setDate(row, scanner, 1);
+		table.setInt(EntryTable.USING, row, scanner, 4);
+		table.setLong(EntryTable.SUB_ID, row, scanner, 5);
+		table.setInt(EntryTable.QUANTITY, row, scanner, 6);
+		table.setText(EntryTable.AFTER_PAYMENT, row, scanner.group(7));
+		table.setLong(EntryTable.ITEM_ID, row, scanner, 8);
+		table.setText(EntryTable.SUCC, row, "true");
+		table.setText(EntryTable.CALLER, row, scanner.caller());
+	}
+}